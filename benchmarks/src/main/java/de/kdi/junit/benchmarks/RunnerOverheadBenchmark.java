@@ -0,0 +1,120 @@
+package de.kdi.junit.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+
+/**
+ * Overhead of the {@link AsyncTestRunner} itself: the creation of a runner, the run of an empty test <br/>
+ * and the run of a test whose spawned thread throws immediately. The latency from the throw in the <br/>
+ * spawned thread to the failure received by a {@link RunListener} is reported by {@link #failureLatency(FailureLatency)}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RunnerOverheadBenchmark {
+
+	public static class EmptyTest {
+
+		@Test
+		public void testNothing() {}
+	}
+
+	public static class ThrowingThreadTest {
+
+		static volatile long throwNanos;
+
+		@Test
+		public void testThrowingThread() {
+			new Thread() {
+				@Override
+				public void run() {
+					throwNanos = System.nanoTime();
+					throw new IllegalStateException("expected by the benchmark");
+				}
+			}.start();
+		}
+	}
+
+	/**
+	 * Sum and number of the latencies from the throw to the failure received by the listener, reported <br/>
+	 * next to the score. Their ratio is the mean failure latency.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class FailureLatency {
+
+		public long failureLatencyNanos;
+		public long failures;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			failureLatencyNanos = 0;
+			failures = 0;
+		}
+	}
+
+	private final RunNotifier notifier = new RunNotifier();
+	private final FailureListener failureListener = new FailureListener();
+	private AsyncTestRunner emptyTestRunner;
+	private AsyncTestRunner throwingThreadTestRunner;
+
+	@Setup
+	public void createRunners() {
+		notifier.addListener(failureListener);
+		emptyTestRunner = new AsyncTestRunner(EmptyTest.class);
+		throwingThreadTestRunner = new AsyncTestRunner(ThrowingThreadTest.class);
+	}
+
+	@Benchmark
+	public Description createRunner() {
+		return new AsyncTestRunner(EmptyTest.class).getDescription();
+	}
+
+	@Benchmark
+	public void runEmptyTest() {
+		emptyTestRunner.run(notifier);
+	}
+
+	@Benchmark
+	public Failure runThrowingThreadTest() {
+		throwingThreadTestRunner.run(notifier);
+		return failureListener.lastFailure;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime) // aux counters are not supported by the sample time mode
+	public Failure failureLatency(FailureLatency latency) {
+		throwingThreadTestRunner.run(notifier);
+		latency.failureLatencyNanos += failureListener.lastFailureNanos - ThrowingThreadTest.throwNanos;
+		latency.failures++;
+		return failureListener.lastFailure;
+	}
+
+	static class FailureListener extends RunListener {
+
+		volatile Failure lastFailure;
+		volatile long lastFailureNanos;
+
+		@Override
+		public void testFailure(Failure failure) {
+			lastFailureNanos = System.nanoTime();
+			lastFailure = failure;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package de.kdi.junit.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.kdi.junit.runners.thread.ThreadShutdownWaiter;
+
+/**
+ * Cost of the wait for created threads. A thread working for {@link #WORK_NANOS} should be waited <br/>
+ * for not much longer than that, everything above is overshoot of the waiting.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ShutdownWaitBenchmark {
+
+	static final long WORK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final List<Thread> finishedThreads = new ArrayList<Thread>();
+
+	@Setup
+	public void startThreads() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			Thread thread = new Thread();
+			thread.start();
+			thread.join();
+			finishedThreads.add(thread);
+		}
+	}
+
+	@Benchmark
+	public List<Thread> awaitFinishedThreads() throws InterruptedException {
+		return new ThreadShutdownWaiter(3000).awaitTermination(finishedThreads);
+	}
+
+	@Benchmark
+	public List<Thread> awaitWorkingThread() throws InterruptedException {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				LockSupport.parkNanos(WORK_NANOS);
+			}
+		};
+		thread.setDaemon(false); // daemon threads are not waited for, the benchmark threads are daemons
+		thread.start();
+		return new ThreadShutdownWaiter(3000).awaitTermination(Collections.singletonList(thread));
+	}
+}
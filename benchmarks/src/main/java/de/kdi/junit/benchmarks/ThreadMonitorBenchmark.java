@@ -0,0 +1,80 @@
+package de.kdi.junit.benchmarks;
+
+import gnu.trove.set.hash.THashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import de.kdi.junit.runners.thread.ThreadMonitor;
+import de.kdi.junit.runners.thread.ThreadSnapshot;
+
+/**
+ * Cost of a single sweep of the thread monitoring depending on the number of live threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ThreadMonitorBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int liveThreads;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<Thread> newThreads = new ArrayList<Thread>();
+	private ThreadSnapshot snapshot;
+	private ThreadMonitor monitor;
+
+	@Setup
+	public void startThreads() {
+		for (int i = 0; i < liveThreads; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						// finished
+					}
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+		}
+		snapshot = new ThreadSnapshot();
+		snapshot.capture();
+		monitor = new ThreadMonitor(snapshot);
+	}
+
+	@TearDown
+	public void stopThreads() {
+		release.countDown();
+	}
+
+	@Benchmark
+	public int snapshotDifference() {
+		snapshot.capture();
+		newThreads.clear();
+		return monitor.getDifference(snapshot, newThreads);
+	}
+
+	/**
+	 * The former way of monitoring, for comparison.
+	 */
+	@Benchmark
+	public Set<Thread> stackTraceDifference() {
+		return monitor.getDifference(new THashSet<Thread>(Thread.getAllStackTraces().keySet()));
+	}
+}
@@ -0,0 +1,399 @@
+package de.kdi.junit.loaders;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Bytes of class files shared by all {@link RobustURLClassLoader}s of the jvm.<br/>
+ * Every jar is opened and its central directory indexed only once, no matter how many class loaders <br/>
+ * use it. The class files of directories and the entries of jars are read once into the heap, the entries <br/>
+ * of multi-release jars in the version of the running jvm. Class files are not memory mapped, as a mapped <br/>
+ * file can't be replaced or deleted on some platforms as long as the mapping is reachable. Class files <br/>
+ * of directories are cached together with their modification time, so recompiled classes are read again.<br/>
+ * The bytes are evicted least recently used first as soon as they exceed the capacity given by the <br/>
+ * system property {@link #CAPACITY_PROPERTY}, {@link #DEFAULT_CAPACITY} by default.<br/>
+ * <br/>
+ * Only file urls are supported, class loaders with other urls use the lookup of the jdk.
+ */
+public class ClassBytesCache {
+
+	/**
+	 * System property giving the capacity of the shared cache in bytes.
+	 */
+	public static final String CAPACITY_PROPERTY = "de.kdi.junit.loaders.cache.capacity";
+	public static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+
+	private static final ClassBytesCache SHARED = new ClassBytesCache(Long.getLong(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+	private static final Object RUNTIME_VERSION = findRuntimeVersion();
+	private static final Constructor<JarFile> VERSIONED_JAR_CONSTRUCTOR = findVersionedJarConstructor();
+
+	private final long capacity;
+	private final ConcurrentMap<URL, Root> roots = new ConcurrentHashMap<URL, Root>();
+	private final LinkedHashMap<String, ByteBuffer> bytes = new LinkedHashMap<String, ByteBuffer>(256, 0.75f, true);
+	private long cachedBytes;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong reads = new AtomicLong();
+
+	ClassBytesCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	public static ClassBytesCache getShared() {
+		return SHARED;
+	}
+
+	private static Object findRuntimeVersion() {
+		try {
+			return JarFile.class.getMethod("runtimeVersion").invoke(null);
+		} catch (Exception e) { // java 8 has no multi-release jars
+			return null;
+		}
+	}
+
+	private static Constructor<JarFile> findVersionedJarConstructor() {
+		if (RUNTIME_VERSION == null) {
+			return null;
+		}
+		try {
+			return JarFile.class.getConstructor(File.class, boolean.class, int.class, RUNTIME_VERSION.getClass());
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true, if multi-release jars are opened in the version of the running jvm (java 9 and later)
+	 */
+	static boolean supportsMultiRelease() {
+		return VERSIONED_JAR_CONSTRUCTOR != null;
+	}
+
+	/**
+	 * Opens the jar like the class loaders of the jdk do.
+	 */
+	private static JarFile openJar(File file) throws IOException {
+		if (VERSIONED_JAR_CONSTRUCTOR == null) {
+			return new JarFile(file);
+		}
+		try {
+			return VERSIONED_JAR_CONSTRUCTOR.newInstance(file, true, ZipFile.OPEN_READ, RUNTIME_VERSION);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} catch (Exception e) {
+			return new JarFile(file);
+		}
+	}
+
+	/**
+	 * @return true when all urls can be searched by this cache
+	 */
+	public boolean supports(URL[] urls) {
+		for (URL currentUrl : urls) {
+			if (getRoot(currentUrl) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Searches the urls in their order for the class file of the given path, e.g. <i>java/lang/Object.class</i>.
+	 *
+	 * @return the bytes and the url containing them or null if no url contains the path
+	 * @throws IOException if the class file could not be read
+	 */
+	public ClassBytes find(URL[] urls, String path) throws IOException {
+		for (URL currentUrl : urls) {
+			Root root = getRoot(currentUrl);
+			if (root != null && root.contains(path)) {
+				return new ClassBytes(root, getBytes(root, path));
+			}
+		}
+		return null;
+	}
+
+	private Root getRoot(URL url) {
+		Root result = roots.get(url);
+		if (result == null) {
+			result = createRoot(url);
+			if (result != null) {
+				Root former = roots.putIfAbsent(url, result);
+				if (former != null) {
+					result.close();
+					result = former;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Root createRoot(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			File file = new File(url.toURI());
+			if (file.isDirectory()) {
+				return new DirectoryRoot(url, file);
+			}
+			if (file.isFile()) {
+				return new JarRoot(url, openJar(file));
+			}
+			return new EmptyRoot(url); // missing entries of the class path
+		} catch (URISyntaxException e) {
+			return null;
+		} catch (IOException e) {
+			return null; // let the jdk report invalid jars
+		}
+	}
+
+	private ByteBuffer getBytes(Root root, String path) throws IOException {
+		String key = root.getKey(path);
+		synchronized (bytes) {
+			ByteBuffer cached = bytes.get(key);
+			if (cached != null) {
+				hits.incrementAndGet();
+				return cached.duplicate();
+			}
+		}
+		ByteBuffer result = root.read(path); // read outside the lock, concurrent reads of the same path are rare
+		reads.incrementAndGet();
+		synchronized (bytes) {
+			if (bytes.put(key, result) == null) {
+				cachedBytes += result.capacity();
+			}
+			evict();
+		}
+		return result.duplicate();
+	}
+
+	private void evict() {
+		Iterator<ByteBuffer> eldest = bytes.values().iterator();
+		while (cachedBytes > capacity && eldest.hasNext()) {
+			cachedBytes -= eldest.next().capacity();
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * @return the number of class files served from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of class files read from the file system
+	 */
+	public long getReads() {
+		return reads.get();
+	}
+
+	/**
+	 * @return the number of bytes currently cached
+	 */
+	public long getCachedBytes() {
+		synchronized (bytes) {
+			return cachedBytes;
+		}
+	}
+
+	/**
+	 * Evicts all bytes and closes the jars.
+	 */
+	public void clear() {
+		synchronized (bytes) {
+			bytes.clear();
+			cachedBytes = 0;
+		}
+		for (Iterator<Root> it = roots.values().iterator(); it.hasNext();) {
+			it.next().close();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Bytes of a class file together with the url containing it.
+	 */
+	public static class ClassBytes {
+
+		private final Root root;
+		private final ByteBuffer bytes;
+
+		ClassBytes(Root root, ByteBuffer bytes) {
+			this.root = root;
+			this.bytes = bytes;
+		}
+
+		public URL getUrl() {
+			return root.url;
+		}
+
+		/**
+		 * @return the manifest of the jar containing the class file or null
+		 */
+		public Manifest getManifest() {
+			return root.getManifest();
+		}
+
+		/**
+		 * @return a buffer of its own positioned at the start of the class file
+		 */
+		public ByteBuffer getBytes() {
+			return bytes;
+		}
+	}
+
+	private abstract static class Root {
+
+		final URL url;
+
+		Root(URL url) {
+			this.url = url;
+		}
+
+		abstract boolean contains(String path);
+
+		abstract ByteBuffer read(String path) throws IOException;
+
+		String getKey(String path) {
+			return url + "!/" + path;
+		}
+
+		Manifest getManifest() {
+			return null;
+		}
+
+		void close() {
+		}
+	}
+
+	private static class EmptyRoot extends Root {
+
+		EmptyRoot(URL url) {
+			super(url);
+		}
+
+		@Override
+		boolean contains(String path) {
+			return false;
+		}
+
+		@Override
+		ByteBuffer read(String path) throws IOException {
+			throw new IOException(path + " not found in " + url);
+		}
+	}
+
+	private static class DirectoryRoot extends Root {
+
+		private final File directory;
+
+		DirectoryRoot(URL url, File directory) {
+			super(url);
+			this.directory = directory;
+		}
+
+		@Override
+		boolean contains(String path) {
+			return new File(directory, path).isFile();
+		}
+
+		/**
+		 * The bytes of a class file compiled again are not found by the key of the former ones, which are evicted in time.
+		 */
+		@Override
+		String getKey(String path) {
+			return super.getKey(path) + "@" + new File(directory, path).lastModified();
+		}
+
+		@Override
+		ByteBuffer read(String path) throws IOException {
+			return ByteBuffer.wrap(Files.readAllBytes(new File(directory, path).toPath()));
+		}
+	}
+
+	private static class JarRoot extends Root {
+
+		private final JarFile jar;
+		private final Map<String, ZipEntry> classEntries = new HashMap<String, ZipEntry>();
+		private final Manifest manifest;
+		private final boolean multiRelease;
+
+		JarRoot(URL url, JarFile jar) throws IOException {
+			super(url);
+			this.jar = jar;
+			for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+				JarEntry currentEntry = entries.nextElement();
+				if (currentEntry.getName().endsWith(".class")) {
+					classEntries.put(currentEntry.getName(), currentEntry);
+				}
+			}
+			this.manifest = jar.getManifest();
+			this.multiRelease = supportsMultiRelease() && manifest != null
+					&& Boolean.parseBoolean(manifest.getMainAttributes().getValue(new Attributes.Name("Multi-Release")));
+		}
+
+		@Override
+		boolean contains(String path) {
+			return multiRelease ? jar.getJarEntry(path) != null : classEntries.containsKey(path);
+		}
+
+		@Override
+		ByteBuffer read(String path) throws IOException {
+			ZipEntry entry = multiRelease ? jar.getJarEntry(path) : classEntries.get(path); // the versioned entry, if there is one
+			InputStream input = jar.getInputStream(entry);
+			try {
+				byte[] result = new byte[(int) entry.getSize()];
+				int offset = 0;
+				int count;
+				while (offset < result.length && (count = input.read(result, offset, result.length - offset)) >= 0) {
+					offset += count;
+				}
+				return ByteBuffer.wrap(result, 0, offset).slice();
+			} finally {
+				input.close();
+			}
+		}
+
+		@Override
+		Manifest getManifest() {
+			return manifest;
+		}
+
+		@Override
+		void close() {
+			try {
+				jar.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+}
@@ -1,17 +1,55 @@
 package de.kdi.junit.loaders;
 
+import gnu.trove.set.hash.THashSet;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
+/**
+ * Resolves a class path to the urls of its canonical entries.<br/>
+ * Entries ending with <i>*</i> are expanded to the jars of their directory, the <i>Class-Path</i> of <br/>
+ * the manifest of a jar is inserted right after it. Missing and duplicate entries are dropped.<br/>
+ * <br/>
+ * The resolved entries are cached for the whole jvm and only resolved again when their modification time <br/>
+ * changes. Class paths with at least {@link #PARALLEL_THRESHOLD} entries not resolved yet are resolved by <br/>
+ * several threads of a shared executor.
+ */
 public class ClassPathExtractor {
 
 
 	static final String JAVA_CLASS_PATH_PROP_ACCESSOR = "java.class.path";
 	static final String CLASSPATH_ENTRY_SEPARATOR = System.getProperty("path.separator");
+	static final String WILDCARD = "*";
+	static final int PARALLEL_THRESHOLD = 64;
+
+	private static final ConcurrentMap<String, ResolvedEntry> RESOLVED_ENTRIES = new ConcurrentHashMap<String, ResolvedEntry>();
 	
 	private String classPath;
 
@@ -24,12 +62,296 @@ public class ClassPathExtractor {
 	}
 
 	public Collection<URL> createUrlClassPath() throws IOException {
-		String[] split = classPath.split(CLASSPATH_ENTRY_SEPARATOR);
-		List<URL> result = new ArrayList<URL>();
-		for (String currentPathAsString : split) {
-			result.add(new File(currentPathAsString).getCanonicalFile().toURI().toURL());
+		List<String> entries = split(classPath);
+		if (entries.size() >= PARALLEL_THRESHOLD) {
+			resolveInParallel(entries);
+		}
+		List<URL> result = new ArrayList<URL>(entries.size());
+		try {
+			for (URL currentUrl : new ClassPathIterable(entries)) {
+				result.add(currentUrl);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return result;
+	}
+
+	/**
+	 * Lazy form of {@link #createUrlClassPath()}, every entry is resolved when it is iterated.
+	 *
+	 * @throws UncheckedIOException while iterating if an entry could not be resolved
+	 */
+	public Iterable<URL> iterateUrlClassPath() {
+		return new ClassPathIterable(split(classPath));
+	}
+
+	private static List<String> split(String classPath) {
+		List<String> result = new ArrayList<String>();
+		for (String currentEntry : classPath.split(CLASSPATH_ENTRY_SEPARATOR)) {
+			if (!currentEntry.isEmpty()) {
+				result.add(currentEntry);
+			}
 		}
 		return result;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Fills the cache by tasks of the shared executor, each resolving every n-th entry not resolved yet.
+	 *
+	 * @return the number of entries resolved in parallel
+	 */
+	static int resolveInParallel(List<String> entries) {
+		final List<String> unresolvedEntries = new ArrayList<String>();
+		for (String currentEntry : entries) {
+			if (!isWildcard(currentEntry) && !isResolved(currentEntry)) {
+				unresolvedEntries.add(currentEntry);
+			}
+		}
+		final int taskCount = Math.min(Runtime.getRuntime().availableProcessors(), unresolvedEntries.size() / (PARALLEL_THRESHOLD / 2));
+		if (taskCount < 2) {
+			return 0;
+		}
+		List<Future<?>> tasks = new ArrayList<Future<?>>(taskCount);
+		for (int i = 0; i < taskCount; i++) {
+			final int firstIndex = i;
+			tasks.add(ResolvingExecutor.INSTANCE.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int index = firstIndex; index < unresolvedEntries.size(); index += taskCount) {
+						try {
+							resolve(unresolvedEntries.get(index));
+						} catch (IOException e) {
+							// reported again while iterating
+						}
+					}
+				}
+			}));
+		}
+		for (Future<?> currentTask : tasks) {
+			try {
+				currentTask.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				// reported again while iterating
+			}
+		}
+		return unresolvedEntries.size();
+	}
+
+	static boolean isWildcard(String entry) {
+		return entry.equals(WILDCARD) || entry.endsWith(File.separator + WILDCARD) || entry.endsWith("/" + WILDCARD);
+	}
+
+	/**
+	 * @return the jars of the directory of the wildcard entry, ordered by name
+	 */
+	static List<String> expandWildcard(String entry) {
+		File directory = new File(entry.substring(0, entry.length() - WILDCARD.length()) + ".");
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return Collections.emptyList();
+		}
+		Arrays.sort(files);
+		List<String> result = new ArrayList<String>();
+		for (File currentFile : files) {
+			String name = currentFile.getName().toLowerCase();
+			if (name.endsWith(".jar") && currentFile.isFile()) {
+				result.add(currentFile.getPath());
+			}
+		}
+		return result;
+	}
+
+	private static boolean isResolved(String entry) {
+		File file = new File(entry).getAbsoluteFile();
+		ResolvedEntry cached = RESOLVED_ENTRIES.get(file.getPath());
+		return cached != null && cached.lastModified == file.lastModified();
+	}
+
+	static ResolvedEntry resolve(String entry) throws IOException {
+		File file = new File(entry).getAbsoluteFile();
+		long lastModified = file.lastModified();
+		String key = file.getPath();
+		ResolvedEntry result = RESOLVED_ENTRIES.get(key);
+		if (result == null || result.lastModified != lastModified) {
+			result = new ResolvedEntry(file, lastModified);
+			RESOLVED_ENTRIES.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Canonical form of a single class path entry as of its modification time.
+	 */
+	static class ResolvedEntry {
+
+		private final long lastModified;
+		private final File canonicalFile;
+		private final URL url;
+		private final List<String> manifestClassPath;
+
+		ResolvedEntry(File file, long lastModified) throws IOException {
+			this.lastModified = lastModified;
+			if (lastModified == 0 && !file.exists()) {
+				this.canonicalFile = null;
+				this.url = null;
+				this.manifestClassPath = Collections.emptyList();
+			} else {
+				this.canonicalFile = file.getCanonicalFile();
+				this.url = canonicalFile.toURI().toURL();
+				this.manifestClassPath = canonicalFile.isFile() ? readManifestClassPath(canonicalFile, url) : Collections.<String> emptyList();
+			}
+		}
+
+		private static List<String> readManifestClassPath(File jar, URL jarUrl) {
+			String classPath;
+			try {
+				JarFile jarFile = new JarFile(jar);
+				try {
+					Manifest manifest = jarFile.getManifest();
+					classPath = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+				} finally {
+					jarFile.close();
+				}
+			} catch (IOException e) {
+				return Collections.emptyList(); // not a jar, the class loader reports it
+			}
+			if (classPath == null) {
+				return Collections.emptyList();
+			}
+			List<String> result = new ArrayList<String>();
+			for (String currentEntry : classPath.trim().split("\\s+")) {
+				try {
+					URL entryUrl = new URL(jarUrl, currentEntry);
+					if ("file".equals(entryUrl.getProtocol())) {
+						result.add(new File(entryUrl.toURI()).getPath());
+					}
+				} catch (MalformedURLException e) {
+					// ignored like by the jdk
+				} catch (URISyntaxException e) {
+					// ignored like by the jdk
+				} catch (IllegalArgumentException e) {
+					// ignored like by the jdk
+				}
+			}
+			return result;
+		}
+
+		boolean exists() {
+			return url != null;
+		}
+
+		URL getUrl() {
+			return url;
+		}
+
+		File getCanonicalFile() {
+			return canonicalFile;
+		}
+
+		List<String> getManifestClassPath() {
+			return manifestClassPath;
+		}
+	}
+
+	private static class ClassPathIterable implements Iterable<URL> {
+
+		private final List<String> entries;
+
+		ClassPathIterable(List<String> entries) {
+			this.entries = entries;
+		}
+
+		@Override
+		public Iterator<URL> iterator() {
+			return new ClassPathIterator(entries);
+		}
+	}
+
+	/**
+	 * Resolves the entries on demand, expanded entries are pushed in front of the remaining ones.
+	 */
+	private static class ClassPathIterator implements Iterator<URL> {
+
+		private final Deque<String> pendingEntries;
+		private final Set<File> visitedFiles = new THashSet<File>();
+		private URL next;
+
+		ClassPathIterator(List<String> entries) {
+			this.pendingEntries = new ArrayDeque<String>(entries);
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && !pendingEntries.isEmpty()) {
+				String currentEntry = pendingEntries.pollFirst();
+				if (isWildcard(currentEntry)) {
+					pushFront(expandWildcard(currentEntry));
+				} else {
+					next = resolveNext(currentEntry);
+				}
+			}
+			return next != null;
+		}
+
+		private URL resolveNext(String entry) {
+			ResolvedEntry resolved;
+			try {
+				resolved = resolve(entry);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (!resolved.exists() || !visitedFiles.add(resolved.getCanonicalFile())) {
+				return null;
+			}
+			pushFront(resolved.getManifestClassPath());
+			return resolved.getUrl();
+		}
+
+		private void pushFront(List<String> entries) {
+			for (int i = entries.size() - 1; i >= 0; i--) {
+				pendingEntries.addFirst(entries.get(i));
+			}
+		}
+
+		@Override
+		public URL next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			URL result = next;
+			next = null;
+			return result;
+		}
+	}
+
+	/**
+	 * Daemon threads shared by all resolutions in parallel, created on first use and terminated when idle.
+	 */
+	private static class ResolvingExecutor {
+
+		static final ExecutorService INSTANCE = create();
+
+		private static ExecutorService create() {
+			final AtomicInteger threadCount = new AtomicInteger();
+			int processors = Runtime.getRuntime().availableProcessors();
+			ThreadPoolExecutor result = new ThreadPoolExecutor(processors, processors, 1, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "ClassPathExtractor-" + threadCount.getAndIncrement());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			result.allowCoreThreadTimeOut(true);
+			return result;
+		}
+	}
+
+}
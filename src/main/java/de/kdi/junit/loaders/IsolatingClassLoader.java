@@ -0,0 +1,54 @@
+package de.kdi.junit.loaders;
+
+import java.net.URL;
+
+/**
+ * {@link RobustURLClassLoader} loading the classes found in its own urls itself before asking its parent.<br/>
+ * Every instance therefore has its own copy of these classes including their static state, while all <br/>
+ * other classes, e.g. of third party jars, are shared by the parent. Classes of the jdk, junit and hamcrest <br/>
+ * are always loaded by the parent, so all instances use the same junit api as the runner loading them.
+ */
+public class IsolatingClassLoader extends RobustURLClassLoader {
+
+	private static final String[] SHARED_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.junit.", "junit.",
+			"org.hamcrest." };
+
+	static {
+		registerAsParallelCapable();
+	}
+
+	public IsolatingClassLoader(URL[] urls, ClassLoader parent) {
+		super(urls, parent);
+	}
+
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		if (isShared(name)) {
+			return super.loadClass(name, resolve);
+		}
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> result = findLoadedClass(name);
+			if (result == null) {
+				try {
+					result = findClass(name);
+				} catch (ClassNotFoundException e) {
+					return super.loadClass(name, resolve); // not isolated, ask the parent
+				}
+			}
+			if (resolve) {
+				resolveClass(result);
+			}
+			return result;
+		}
+	}
+
+	static boolean isShared(String className) {
+		for (String currentPrefix : SHARED_PACKAGES) {
+			if (className.startsWith(currentPrefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -1,7 +1,17 @@
 package de.kdi.junit.loaders;
 
+import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Manifest;
+
+import de.kdi.junit.loaders.ClassBytesCache.ClassBytes;
 
 
 /**
@@ -11,25 +21,123 @@ import java.net.URLClassLoader;
  * 	<p>
  * 	<i>Thread.currentThread().setContextClassLoader(instance)</i>
  * </p>
+ * The class loader is parallel capable. Names which could not be loaded are remembered in a bounded <br/>
+ * cache, so probing for an optional class again returns at once without searching the urls. Misses <br/>
+ * are counted, but a name is only reported when it is added to the cache.<br/>
+ * The bytes of the classes are read from the {@link ClassBytesCache} shared by all instances, so creating <br/>
+ * many class loaders for the same class path doesn't open and read the same files again.
  * 
  * @author Dan Häberlein
  *
  */
 public class RobustURLClassLoader extends URLClassLoader {
 
+	static final int MAX_CACHED_MISSES = 4096;
+
+	static {
+		registerAsParallelCapable();
+	}
+
+	private final Set<String> missedNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final AtomicLong missCount = new AtomicLong();
+	private final ClassBytesCache classBytesCache = ClassBytesCache.getShared();
+	private volatile URL[] searchedUrls;
+	private volatile boolean cached;
+
 	public RobustURLClassLoader(URL[] urls) {
 		super(urls);
+		updateSearchedUrls();
+	}
+
+	public RobustURLClassLoader(URL[] urls, ClassLoader parent) {
+		super(urls, parent);
+		updateSearchedUrls();
+	}
+
+	private void updateSearchedUrls() {
+		searchedUrls = getURLs();
+		cached = classBytesCache.supports(searchedUrls);
 	}
 	
 	@Override
 	public Class<?> loadClass(String name) throws ClassNotFoundException {
+		if (missedNames.contains(name)) {
+			missCount.incrementAndGet();
+			return Object.class;
+		}
 		Class<?> result = Object.class; 
 		try {
 			result = super.loadClass(name);
 		} catch (ClassNotFoundException e){
-			System.err.println("Can't load class: " + e.getMessage());
+			if (missedNames.size() >= MAX_CACHED_MISSES) {
+				missedNames.clear(); // a cheap bound, the cache is refilled by the names still probed
+			}
+			missCount.incrementAndGet();
+			if (missedNames.add(name)) {
+				System.err.println("[WARN] Can't load class: " + name);
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * New urls may contain classes which have been missed before.
+	 */
+	@Override
+	protected void addURL(URL url) {
+		super.addURL(url);
+		updateSearchedUrls();
+		missedNames.clear();
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		if (!cached) {
+			return super.findClass(name);
+		}
+		ClassBytes classBytes;
+		try {
+			classBytes = classBytesCache.find(searchedUrls, name.replace('.', '/').concat(".class"));
+		} catch (IOException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+		if (classBytes == null) {
+			throw new ClassNotFoundException(name);
+		}
+		definePackageOf(name, classBytes);
+		return defineClass(name, classBytes.getBytes(), new CodeSource(classBytes.getUrl(), (CodeSigner[]) null));
+	}
+
+	@SuppressWarnings("deprecation")
+	private void definePackageOf(String className, ClassBytes classBytes) {
+		int lastDot = className.lastIndexOf('.');
+		if (lastDot < 0) {
+			return;
+		}
+		String packageName = className.substring(0, lastDot);
+		if (getPackage(packageName) == null) {
+			try {
+				Manifest manifest = classBytes.getManifest();
+				if (manifest == null) {
+					definePackage(packageName, null, null, null, null, null, null, null);
+				} else {
+					definePackage(packageName, manifest, classBytes.getUrl());
+				}
+			} catch (IllegalArgumentException e) {
+				// defined by another thread in the meantime
+			}
+		}
+	}
+
+	/**
+	 * @return the number of class names which could not be loaded, including repeated ones
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	boolean isCachedMiss(String name) {
+		return missedNames.contains(name);
+	}
+
 }
@@ -1,16 +1,12 @@
 package de.kdi.junit.runners;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -22,14 +18,42 @@ import org.junit.Test;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
 import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sortable;
+import org.junit.runner.manipulation.Sorter;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 import org.junit.runner.notification.RunNotifier;
 
-import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+import de.kdi.junit.runners.agent.ThreadCreationHooks;
+import de.kdi.junit.runners.annotation.ParallelExecution;
+import de.kdi.junit.runners.await.AwaitContext;
+import de.kdi.junit.runners.clock.VirtualClock;
 import de.kdi.junit.runners.exception.AsynchronousTestRunnerException;
+import de.kdi.junit.runners.exception.TasksStillRunningException;
+import de.kdi.junit.runners.exception.ThreadsDeadlockedException;
 import de.kdi.junit.runners.exception.ThreadsStillAliveException;
-import de.kdi.junit.runners.thread.ThreadDifferenceMonitor;
+import de.kdi.junit.runners.leak.LeakReport;
+import de.kdi.junit.runners.leak.SuiteResourceTracker;
+import de.kdi.junit.runners.leak.ThreadReclaimer;
+import de.kdi.junit.runners.metrics.AsyncTestMetrics;
+import de.kdi.junit.runners.metrics.TestMetricsRecorder;
+import de.kdi.junit.runners.model.TestClassModel;
+import de.kdi.junit.runners.model.TestMethodModel;
+import de.kdi.junit.runners.quiescence.QuiescenceMonitor;
+import de.kdi.junit.runners.stress.StressExecution;
+import de.kdi.junit.runners.stress.StressResult;
+import de.kdi.junit.runners.thread.AgentThreadMonitor;
+import de.kdi.junit.runners.thread.DeadlockDetector;
+import de.kdi.junit.runners.thread.ExceptionRecorder;
+import de.kdi.junit.runners.thread.MonitoringThreadGroup;
+import de.kdi.junit.runners.thread.ThreadCreationMonitor;
+import de.kdi.junit.runners.thread.ThreadMonitoringService;
+import de.kdi.junit.runners.thread.ThreadShutdownWaiter;
+import de.kdi.junit.runners.timeout.TimeoutWatchdog;
+import de.kdi.junit.runners.timeout.TimeoutWatchdog.Timeout;
 
 /**
  * 
@@ -45,190 +69,290 @@ import de.kdi.junit.runners.thread.ThreadDifferenceMonitor;
  * <br/>
  * Note: The {@link Rule} annotation has not been tested together with this test
  * runner.<br/>
+ * <br/>
+ * Created threads are detected by polling of the shared
+ * {@link de.kdi.junit.runners.thread.ThreadMonitoringService}, unless the
+ * {@link de.kdi.junit.runners.agent.ThreadCreationAgent} is installed.<br/>
+ * Test methods can be executed in parallel, see {@link ParallelExecution}.<br/>
+ * Executors and futures used by a test method can be awaited as well, see
+ * {@link de.kdi.junit.runners.quiescence.Quiescence}.<br/>
+ * Test methods can wait for conditions, futures, latches and their threads without polling, see
+ * {@link de.kdi.junit.runners.await.Await}.<br/>
+ * Test methods can be invoked repeatedly by several threads, see
+ * {@link de.kdi.junit.runners.annotation.Repeat} and {@link de.kdi.junit.runners.annotation.Concurrent}.<br/>
+ * Sleeping test code can run with a virtual clock, see
+ * {@link de.kdi.junit.runners.annotation.VirtualTime}.<br/>
+ * The resources used by the threads of every test method are measured, see
+ * {@link de.kdi.junit.runners.metrics.AsyncTestMetrics}.<br/>
  * 
  * @author Dan Häberlein
  * 
  */
-public class AsyncTestRunner extends Runner {
+public class AsyncTestRunner extends Runner implements Filterable, Sortable {
 
 	/**
-	 * Default timeout duration.
+	 * System property enabling the parallel execution of test methods for all test classes without
+	 * {@link ParallelExecution} annotation. The value is the number of test methods running at the same
+	 * time or <i>true</i> for the number of available processors.
 	 */
-	private static final int DEFAULT_TIMEOUT = 3000;
+	public static final String PARALLELISM_PROPERTY = "de.kdi.junit.runners.parallelism";
 
-	private Map<Class<? extends Annotation>, Method> junitBasicAnnotationMap = new HashMap<Class<? extends Annotation>, Method>();
-	private int timeout;
+	private final TestClassModel model;
 	private Description rootDescription;
-	List<Method> testMethods = new ArrayList<Method>();
+	private List<TestMethodModel> activeTestMethods;
+	List<Method> testMethods;
 
 	private final Class<?> testClass;
-	private Object testClassInstance;
+	private final int parallelism;
+	private boolean concurrentRun;
 
 	public AsyncTestRunner(java.lang.Class<?> testClass) {
 		this.testClass = testClass;
-		Method[] classMethods = testClass.getDeclaredMethods();
-		rootDescription = Description.createSuiteDescription(testClass.getName(), testClass.getAnnotations());
-		extractTestMethods(classMethods);
-		sortTestMethods();
-	}
-
-	private void sortTestMethods() {
-		Collections.sort(testMethods, new AscMethodNameComparator());
-		Collections.sort(rootDescription.getChildren(), new AscDescriptionComparator());
+		this.model = TestClassModel.of(testClass);
+		this.parallelism = getParallelism();
+		setActiveTestMethods(model.getTestMethods());
 	}
 
-	static class AscDescriptionComparator implements Comparator<Description> {
-
-		@Override
-		public int compare(Description comparable1, Description comparable) {
-			return new StringComparator().compare(comparable1.getMethodName(), comparable.getMethodName());
+	/**
+	 * Replaces the test methods to run and rebuilds the descriptions in the same order.
+	 */
+	private void setActiveTestMethods(List<TestMethodModel> methods) {
+		Description description = Description.createSuiteDescription(testClass.getName(), model.getAnnotations());
+		List<Method> reflectedMethods = new ArrayList<Method>(methods.size());
+		for (TestMethodModel currentMethod : methods) {
+			description.addChild(currentMethod.getDescription());
+			reflectedMethods.add(currentMethod.getMethod());
 		}
-		
+		activeTestMethods = methods;
+		testMethods = reflectedMethods;
+		rootDescription = description;
 	}
-	
+
 	static class AscMethodNameComparator implements Comparator<Method> {
 
 		@Override
 		public int compare(Method comparable1, Method comparable2) {
-			String comparableMethodName1 = comparable1.getName();
-			String comparableMethodName2 = comparable2.getName();
-			return new StringComparator().compare(comparableMethodName1, comparableMethodName2);
+			return comparable1.getName().compareTo(comparable2.getName());
 		}
 
 	}
-	
-	static class StringComparator implements Comparator<String> {
 
-		@Override
-		public int compare(String comparable1, String comparable2) {
-			return comparable1.compareTo(comparable2);
+	@Override
+	public void filter(Filter filter) throws NoTestsRemainException {
+		List<TestMethodModel> filtered = new ArrayList<TestMethodModel>(activeTestMethods.size());
+		for (TestMethodModel currentMethod : activeTestMethods) {
+			if (filter.shouldRun(currentMethod.getDescription())) {
+				filtered.add(currentMethod);
+			}
+		}
+		if (filtered.isEmpty()) {
+			throw new NoTestsRemainException();
 		}
-		
+		setActiveTestMethods(filtered);
 	}
 
-	private void extractTestMethods(Method[] classMethods) {
-		for (Method currentMethod : classMethods) {
-			Class<?> retClass = currentMethod.getReturnType();
-			int length = currentMethod.getParameterTypes().length;
-			int modifiers = currentMethod.getModifiers();
-			boolean isWellformedTestMethod = retClass != null && length == 0 && !Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers)
-					&& !Modifier.isInterface(modifiers) && !Modifier.isAbstract(modifiers);
-			if (isWellformedTestMethod) {
-				boolean usedForTests = addToMethodsWhenTestMethodAndNotIgnored(currentMethod);
-				if (!usedForTests) {
-					retreiveMethodWithAnnotation(currentMethod);
-				}
-			} else {
-				retriveMethodWithStaticJunitAnnoation(currentMethod);
+	@Override
+	public void sort(final Sorter sorter) {
+		List<TestMethodModel> sorted = new ArrayList<TestMethodModel>(activeTestMethods);
+		Collections.sort(sorted, new Comparator<TestMethodModel>() {
+
+			@Override
+			public int compare(TestMethodModel model1, TestMethodModel model2) {
+				return sorter.compare(model1.getDescription(), model2.getDescription());
 			}
+		});
+		setActiveTestMethods(sorted);
+	}
+
+	@Override
+	public Description getDescription() {
+		return rootDescription;
+	}
+
+	@Override
+	public void run(RunNotifier runNotifier) {
+		startTimeoutWatchdogIfNeeded();
+		SuiteResourceTracker.getInstance().classStarted();
+		callBeforeClass();
+		// other test classes running at the same time require a thread group per test method as well
+		concurrentRun = parallelism > 1 || IsolatedSuite.isRunningConcurrently();
+		if (concurrentRun) {
+			runInParallel(runNotifier, parallelism);
+		} else {
+			for (TestMethodModel currentMethod : activeTestMethods) {
+				runTestMethod(runNotifier, currentMethod, createThreadMonitor());
+			}
+		}
+		callAfterClass();
+		LeakReport leak = SuiteResourceTracker.getInstance().classFinished(testClass);
+		if (leak != null) {
+			AsyncTestMetrics.publish(leak);
 		}
 	}
 
-	private boolean addToMethodsWhenTestMethodAndNotIgnored(Method method) {
-		String methodName = method.getName();
-		boolean isMethodIgnored = method.getAnnotation(Ignore.class) != null;
-		boolean isTestMethod = methodName.toUpperCase().startsWith("TEST") || method.getAnnotation(Test.class) != null;
-		boolean isUsedForTests = isTestMethod && !isMethodIgnored;
-		if (isUsedForTests) {
-			testMethods.add(method);
-			rootDescription.addChild(Description.createTestDescription(method.getClass(), method.getName()));
+	private int getParallelism() {
+		ParallelExecution annotation = model.getParallelExecution();
+		String property = System.getProperty(PARALLELISM_PROPERTY);
+		int result = 1;
+		if (annotation != null) {
+			result = annotation.value();
+		} else if (property != null) {
+			result = Boolean.parseBoolean(property) ? 0 : Integer.parseInt(property.trim());
 		}
-		return isUsedForTests;
+		return result < 1 ? Runtime.getRuntime().availableProcessors() : result;
 	}
 
-	private void retreiveMethodWithAnnotation(Method currentMethod) {
-		if (currentMethod.getAnnotation(Before.class) != null) {
-			junitBasicAnnotationMap.put(Before.class, currentMethod);
+	/**
+	 * Runs every test method in a new thread of its own {@link MonitoringThreadGroup}, at most
+	 * <i>parallelism</i> at the same time.
+	 */
+	private void runInParallel(final RunNotifier runNotifier, int parallelism) {
+		final Semaphore workers = new Semaphore(parallelism);
+		List<Thread> testThreads = new ArrayList<Thread>();
+		List<MonitoringThreadGroup> threadGroups = new ArrayList<MonitoringThreadGroup>();
+		for (final TestMethodModel method : activeTestMethods) {
+			final MonitoringThreadGroup threadGroup = new MonitoringThreadGroup(method.getDescription().getDisplayName());
+			threadGroups.add(threadGroup);
+			Thread testThread = new Thread(threadGroup, new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						runTestMethod(runNotifier, method, threadGroup);
+					} finally {
+						workers.release();
+					}
+				}
+			}, method.getName());
+			workers.acquireUninterruptibly();
+			testThread.start();
+			testThreads.add(testThread);
+		}
+		for (Thread currentTestThread : testThreads) {
+			joinUninterruptibly(currentTestThread);
 		}
-		if (currentMethod.getAnnotation(After.class) != null) {
-			junitBasicAnnotationMap.put(After.class, currentMethod);
+		for (MonitoringThreadGroup currentThreadGroup : threadGroups) {
+			currentThreadGroup.destroyIfTerminated();
 		}
 	}
 
-	private void retriveMethodWithStaticJunitAnnoation(Method currentMethod) {
-		int modifiers = currentMethod.getModifiers();
-		if (Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers)) {
-			if (currentMethod.getAnnotation(BeforeClass.class) != null) {
-				junitBasicAnnotationMap.put(BeforeClass.class, currentMethod);
-			}
-			if (currentMethod.getAnnotation(AfterClass.class) != null) {
-				junitBasicAnnotationMap.put(AfterClass.class, currentMethod);
+	static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
 			}
 		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
-	@Override
-	public Description getDescription() {
-		return rootDescription;
-	}
-
-	@Override
-	public void run(RunNotifier runNotifier) {
-		callBeforeClass();
-		for (int i = 0; i < testMethods.size(); i++) {
-			Method method = testMethods.get(i);
-			Description currentTestMethodDescription = rootDescription.getChildren().get(i);
-			Result result = new Result();
-			RunListener listener = result.createListener();
+	private void runTestMethod(RunNotifier runNotifier, TestMethodModel method, ThreadCreationMonitor monitor) {
+		Description currentTestMethodDescription = method.getDescription();
+		Result result = new Result();
+		RunListener listener = result.createListener();
+		Object testClassInstance = null;
+		try {
+			startTest(runNotifier, currentTestMethodDescription, listener);	// needed to be started already here for retrieving failures out of before method!
+			testClassInstance = model.newInstance();
+			model.invokeBefore(testClassInstance);
+			runTest(runNotifier, method, testClassInstance, currentTestMethodDescription, result, monitor);
+		} catch (IllegalArgumentException e) {
+			runNotifier.fireTestFailure(new Failure(currentTestMethodDescription, new IllegalArgumentException(
+					"no parameters for test methods are supported", e)));
+		} catch (InvocationTargetException e) {
+			checkForExpectedFailure(runNotifier, method, currentTestMethodDescription, e);
+		} finally {
+			runNotifier.removeListener(listener);
 			try {
-				startTest(runNotifier, currentTestMethodDescription, listener);	// needed to be started already here for retrieving failures out of before method!
-				testClassInstance = tryToCreateTestClassInstance();
-				invokeJunitMethod(testClassInstance, Before.class);
-				runTest(runNotifier, method, currentTestMethodDescription, result);
-			} catch (IllegalArgumentException e) {
-				runNotifier.fireTestFailure(new Failure(currentTestMethodDescription, new IllegalArgumentException(
-						"no parameters for test methods are supported", e)));
-			} catch (InvocationTargetException e) {
-				checkForExpectedFailure(runNotifier, method, currentTestMethodDescription, e);
-			} finally {
-				runNotifier.removeListener(listener);
-				try {
-					if (testClassInstance != null)
-						invokeJunitMethod(testClassInstance, After.class);
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
+				if (testClassInstance != null)
+					model.invokeAfter(testClassInstance);
+			} catch (Exception e) {
+				e.printStackTrace();
 			}
 		}
-		callAfterClass();
 	}
 	
-	private void callBeforeClass() {
-		try {
-			invokeJunitMethod(null, BeforeClass.class);
-		} catch (Exception e) {
-			e.printStackTrace();
+	/**
+	 * Starts the watchdog before any monitoring, so it is not taken for a thread created by a test method.
+	 */
+	private void startTimeoutWatchdogIfNeeded() {
+		for (TestMethodModel currentMethod : activeTestMethods) {
+			if (currentMethod.getTimeout() > 0) {
+				TimeoutWatchdog.getInstance().start();
+				return;
+			}
 		}
 	}
 
-	private Object tryToCreateTestClassInstance() throws InvocationTargetException {
+	private void callBeforeClass() {
 		try {
-			return testClass.newInstance();
-		} catch (Exception e){
-			throw new InvocationTargetException(e);
+			model.invokeBeforeClass();
+		} catch (Exception e) {
+			e.printStackTrace();
 		}
 	}
 
-	private void runTest(RunNotifier runNotifier, Method method, Description currentTestMethodDescription, Result result)
-			throws InvocationTargetException {
+	private void runTest(RunNotifier runNotifier, TestMethodModel method, Object testClassInstance, Description currentTestMethodDescription,
+			Result result, ThreadCreationMonitor monitor) throws InvocationTargetException {
 		try {
-			setTimeoutForMethod(method);
-			// Prepare Thread monitoring
-			ThreadDifferenceMonitor monitor = new ThreadDifferenceMonitor();
-			Thread monitoringThread = new Thread(monitor);
-			monitoringThread.start();
-			Thread.sleep(10);
-			// Invoke test method
-			method.invoke(testClassInstance);
-			Thread.sleep(10);
-			monitoringThread.interrupt();
-			monitoringThread.join();
-			// check for still running threads
-			Set<Thread> createdThreads = monitor.getCreatedThreads();
-			for (Thread currentThread : createdThreads) {
-				waitForFinishingThreads(currentThread);
+			int timeout = method.getShutdownTimeout();
+			TestMetricsRecorder metrics = new TestMetricsRecorder(currentTestMethodDescription, monitor);
+			VirtualClock clock = method.isVirtualTime() ? new VirtualClock(monitor) : null;
+			AwaitContext awaits = new AwaitContext(timeout, monitor);
+			metrics.start();
+			try {
+				if (clock != null) {
+					clock.open(); // before the monitoring, so its driver is not taken for a created thread
+				}
+				// Prepare Thread monitoring
+				monitor.startMonitoring();
+				QuiescenceMonitor quiescence = new QuiescenceMonitor(monitor.getExceptionRecorder(), !concurrentRun);
+				quiescence.open();
+				awaits.open();
+				// Invoke test method
+				metrics.invocationStarted();
+				try {
+					if (method.isStressed()) {
+						runStressed(method, testClassInstance, monitor, metrics);
+					} else {
+						invokeWithTimeout(method, testClassInstance);
+					}
+				} finally {
+					metrics.invocationFinished();
+					awaits.close();
+					quiescence.close();
+					monitor.stopMonitoring();
+				}
+				// check for still running threads and tasks
+				ThreadShutdownWaiter waiter = clock == null ? new ThreadShutdownWaiter(timeout) : clock.newShutdownWaiter(timeout);
+				quiescence.registerFields(testClassInstance);
+				metrics.shutdownWaitStarted();
+				try {
+					if (method.isFailFast()) {
+						waitFailingFast(method, monitor, quiescence, waiter);
+					} else {
+						waitForQuiescence(quiescence, waiter);
+						waitForFinishingThreads(monitor, waiter);
+					}
+				} catch (InvocationTargetException e) {
+					reclaimLeakedThreads(monitor, e);
+					throw e;
+				} finally {
+					metrics.shutdownWaitFinished();
+				}
+				checkForRecoredExceptions(monitor);
+			} finally {
+				monitor.stopMonitoring(); // after the shutdown wait, the exceptions of terminated threads are no longer routed to it
+				if (clock != null) {
+					clock.close();
+				}
+				metrics.setAwaits(awaits.getRecords()); // including the awaits of created threads during the shutdown wait
+				metrics.finish(); // available to listeners before the test is reported
 			}
-			checkForRecoredExceptions(monitor);
 			// publish test results
 			runNotifier.fireTestRunFinished(result);
 			runNotifier.fireTestFinished(currentTestMethodDescription);
@@ -239,78 +363,140 @@ public class AsyncTestRunner extends Runner {
 		}
 	}
 
+	private void invokeWithTimeout(TestMethodModel method, Object testClassInstance) throws InvocationTargetException {
+		if (method.getTimeout() <= 0) {
+			method.invoke(testClassInstance);
+			return;
+		}
+		Timeout timeout = TimeoutWatchdog.getInstance().schedule(Thread.currentThread(), method.getTimeout());
+		InvocationTargetException failure = null;
+		try {
+			method.invoke(testClassInstance);
+		} catch (InvocationTargetException e) {
+			failure = e;
+		}
+		if (!timeout.cancel()) {
+			throw new InvocationTargetException(timeout.newException()); // the failure is a consequence of the interrupt
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void runStressed(TestMethodModel method, Object testClassInstance, ThreadCreationMonitor monitor,
+			TestMetricsRecorder metrics) throws InterruptedException {
+		StressResult stressResult = new StressExecution(model, method, monitor.getExceptionRecorder()).run(testClassInstance);
+		metrics.setStressResult(stressResult);
+	}
+
+	private ThreadCreationMonitor createThreadMonitor() {
+		if (ThreadCreationHooks.isInstalled()) {
+			return new AgentThreadMonitor();
+		}
+		return ThreadMonitoringService.getInstance().newCaptureWindow();
+	}
+
 	private void startTest(RunNotifier runNotifier, Description currentTestMethodDescription, RunListener listener) {
 		runNotifier.addFirstListener(listener);
 		runNotifier.fireTestStarted(currentTestMethodDescription);
 		runNotifier.addListener(listener);
 	}
 
-	private void setTimeoutForMethod(Method method) {
-		ThreadShutdownTimeout annotatedValue = method.getAnnotation(ThreadShutdownTimeout.class);
-		timeout = annotatedValue == null ? DEFAULT_TIMEOUT : annotatedValue.value();
+	private void waitForQuiescence(QuiescenceMonitor quiescence, ThreadShutdownWaiter waiter) throws InvocationTargetException {
+		try {
+			List<Object> stillBusy = quiescence.awaitQuiescence(waiter);
+			if (!stillBusy.isEmpty()) {
+				throw new TasksStillRunningException("There are executors or futures still busy " + stillBusy, stillBusy);
+			}
+		} catch (Exception e) {
+			throw new InvocationTargetException(e);
+		}
 	}
 
-	private void waitForFinishingThreads(Thread currentThread) throws InvocationTargetException {
+	private void waitForFinishingThreads(ThreadCreationMonitor monitor, ThreadShutdownWaiter waiter) throws InvocationTargetException {
 		try {
-			long startTime = System.currentTimeMillis();
-			boolean hasTimeouted = false;
-			boolean hasStillRunningThreads = false;
-			while (currentThread.isAlive() && !currentThread.isDaemon() && !hasTimeouted) {
-				Thread.sleep(100);
-				hasTimeouted = System.currentTimeMillis() - startTime > timeout;
-				if (hasTimeouted) {
+			List<Thread> stillRunningThreads = waiter.awaitTermination(monitor.getCreatedThreads());
+			DeadlockDetector.Deadlock deadlock = waiter.getDeadlock();
+			if (deadlock != null) {
+				throw new ThreadsDeadlockedException(deadlock.getDescription(), deadlock.getThreads());
+			}
+			if (!stillRunningThreads.isEmpty()) {
+				for (Thread currentThread : stillRunningThreads) {
 					System.err.println("[ERROR] " + currentThread.toString() + " is still running! Timeout exceeded...");
-					hasStillRunningThreads = true;
 				}
-			}
-			if (hasStillRunningThreads) {
-				throw new ThreadsStillAliveException("Threre are threads still alive (" + currentThread + ")");
+				Thread firstThread = stillRunningThreads.get(0);
+				throw new ThreadsStillAliveException("Threre are threads still alive " + stillRunningThreads, stillRunningThreads,
+						monitor.getCreationSite(firstThread));
 			}
 		} catch (Exception e) {
 			throw new InvocationTargetException(e);
 		}
 	}
 
-	private void checkForRecoredExceptions(ThreadDifferenceMonitor monitor) throws Throwable {
-		Map<Long, Throwable> threadIdToExceptions = monitor.getThreadIdAndCorrespondingException();
-		switch (threadIdToExceptions.size()) {
-			case 1:
-				throw threadIdToExceptions.values().iterator().next();
-			default:
-				throw new AsynchronousTestRunnerException(threadIdToExceptions);
-			case 0:
+	/**
+	 * Waits like without fail fast, but stops as soon as an exception is recorded. The threads still alive get <br/>
+	 * the grace period to terminate after their interruption, the exception is reported afterwards.
+	 */
+	private void waitFailingFast(TestMethodModel method, ThreadCreationMonitor monitor, QuiescenceMonitor quiescence,
+			ThreadShutdownWaiter waiter) throws InvocationTargetException {
+		ExceptionRecorder recorder = monitor.getExceptionRecorder();
+		recorder.wakeOnRecord(Thread.currentThread());
+		InvocationTargetException failure = null;
+		try {
+			waitForQuiescence(quiescence, waiter);
+			waitForFinishingThreads(monitor, waiter);
+		} catch (InvocationTargetException e) {
+			failure = e;
+		}
+		if (recorder.stopWaking()) {
+			interruptRemainingThreads(monitor, method.getFailFastGracePeriod());
+		} else if (failure != null) {
+			throw failure;
 		}
 	}
 
-	private void invokeJunitMethod(Object testClassInstance, Class<? extends Annotation> key) throws InvocationTargetException {
-		if (junitBasicAnnotationMap.containsKey(key)) {
-			Method method = junitBasicAnnotationMap.get(key);
-			try {
-				method.invoke(testClassInstance);
-			} catch (Exception e) {
-				throw new InvocationTargetException(e);
-			}
+	/**
+	 * Doesn't let the leaked threads pile up. A failure of the reclamation is added to the failure of the test.
+	 */
+	private void reclaimLeakedThreads(ThreadCreationMonitor monitor, InvocationTargetException failure) {
+		try {
+			ThreadReclaimer.getInstance().reclaim(monitor);
+		} catch (Exception e) {
+			failure.getTargetException().addSuppressed(e);
+		}
+	}
+
+		private void interruptRemainingThreads(ThreadCreationMonitor monitor, int gracePeriod) throws InvocationTargetException {
+		try {
+			ThreadReclaimer.getInstance().interrupt(monitor, gracePeriod);
+		} catch (InterruptedException e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	private void checkForRecoredExceptions(ThreadCreationMonitor monitor) throws Throwable {
+		ExceptionRecorder recorder = monitor.getExceptionRecorder();
+		long recordedCount = recorder.getRecordedCount();
+		Throwable firstThrowable = recorder.getFirstThrowable();
+		if (recordedCount == 1 && firstThrowable != null) {
+			throw firstThrowable;
+		} else if (recordedCount > 0) { // includes a single exception which has only been counted
+			throw new AsynchronousTestRunnerException(recorder.getRecordedExceptions(), recorder.getDroppedCount());
 		}
 	}
 
-	private void checkForExpectedFailure(RunNotifier runNotifier, Method method, Description spec, InvocationTargetException e) {
+	private void checkForExpectedFailure(RunNotifier runNotifier, TestMethodModel method, Description spec, InvocationTargetException e) {
 		Throwable targetException = e.getTargetException();
-		Test testAnnotation = method.getAnnotation(Test.class);
-		if (testAnnotation == null) {
-			runNotifier.fireTestFailure(new Failure(spec, targetException));
+		if (method.isExpected(targetException)) {
+			runNotifier.fireTestFinished(spec);
 		} else {
-			Class<? extends Throwable> expectedException = testAnnotation.expected();
-			if (expectedException != null && expectedException.isInstance(targetException)) {
-				runNotifier.fireTestFinished(spec);
-			} else {
-				runNotifier.fireTestFailure(new Failure(spec, targetException));
-			}
+			runNotifier.fireTestFailure(new Failure(spec, targetException));
 		}
 	}
 
 	private void callAfterClass() {
 		try {
-			invokeJunitMethod(null, AfterClass.class);
+			model.invokeAfterClass();
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -0,0 +1,188 @@
+package de.kdi.junit.runners;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.junit.internal.builders.AllDefaultPossibilitiesBuilder;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite.SuiteClasses;
+import org.junit.runners.model.InitializationError;
+
+import de.kdi.junit.loaders.ClassPathExtractor;
+import de.kdi.junit.loaders.IsolatingClassLoader;
+import de.kdi.junit.runners.annotation.ParallelExecution;
+
+/**
+ * JUnit 4 suite running its test classes in parallel within one jvm instead of a forked jvm per class.<br/>
+ * Every test class is loaded by its own {@link IsolatingClassLoader}, so static state can't leak between <br/>
+ * them. The class loaders contain the directories of the class path, the jars and this library are <br/>
+ * shared by the class loader of the suite. Every test class is run by the runner given by its own <br/>
+ * {@link org.junit.runner.RunWith} annotation.<br/>
+ * <br/>
+ * Usage:
+ * <pre>
+ * &#064;RunWith(IsolatedSuite.class)
+ * &#064;SuiteClasses({ TestA.class, TestB.class })
+ * &#064;ParallelExecution(4)
+ * public class AllTests {}
+ * </pre>
+ * The {@link ParallelExecution} annotation gives the number of test classes running at the same time, <br/>
+ * the number of available processors if absent. Test methods of an {@link AsyncTestRunner} running at <br/>
+ * the same time as other test classes are monitored by thread groups, like for a parallel execution.
+ */
+public class IsolatedSuite extends Runner implements Filterable {
+
+	private static final ThreadLocal<Boolean> RUNNING_CONCURRENTLY = new ThreadLocal<Boolean>();
+
+	private final Description rootDescription;
+	private final List<IsolatedClass> isolatedClasses = new ArrayList<IsolatedClass>();
+	private final int parallelism;
+
+	public IsolatedSuite(Class<?> suiteClass) throws InitializationError {
+		SuiteClasses suiteClasses = suiteClass.getAnnotation(SuiteClasses.class);
+		if (suiteClasses == null) {
+			throw new InitializationError("class " + suiteClass.getName() + " must have a SuiteClasses annotation");
+		}
+		ParallelExecution parallelExecution = suiteClass.getAnnotation(ParallelExecution.class);
+		int configuredParallelism = parallelExecution == null ? 0 : parallelExecution.value();
+		parallelism = configuredParallelism < 1 ? Runtime.getRuntime().availableProcessors() : configuredParallelism;
+		URL[] isolatedUrls = getIsolatedClassPath();
+		rootDescription = Description.createSuiteDescription(suiteClass.getName(), suiteClass.getAnnotations());
+		for (Class<?> currentClass : suiteClasses.value()) {
+			IsolatedClass isolatedClass = new IsolatedClass(currentClass.getName(), isolatedUrls);
+			isolatedClasses.add(isolatedClass);
+			rootDescription.addChild(isolatedClass.runner.getDescription());
+		}
+	}
+
+	/**
+	 * @return true when called by a thread running a test class while other test classes are running
+	 */
+	static boolean isRunningConcurrently() {
+		return Boolean.TRUE.equals(RUNNING_CONCURRENTLY.get());
+	}
+
+	/**
+	 * @return the directories of the class path except the one containing this library
+	 */
+	static URL[] getIsolatedClassPath() throws InitializationError {
+		try {
+			URL libraryLocation = null;
+			CodeSource codeSource = IsolatedSuite.class.getProtectionDomain().getCodeSource();
+			if (codeSource != null) {
+				libraryLocation = new File(codeSource.getLocation().toURI()).getCanonicalFile().toURI().toURL();
+			}
+			List<URL> result = new ArrayList<URL>();
+			for (URL currentUrl : new ClassPathExtractor().createUrlClassPath()) {
+				if (!currentUrl.equals(libraryLocation) && new File(currentUrl.toURI()).isDirectory()) {
+					result.add(currentUrl);
+				}
+			}
+			return result.toArray(new URL[result.size()]);
+		} catch (IOException e) {
+			throw new InitializationError(e);
+		} catch (URISyntaxException e) {
+			throw new InitializationError(e);
+		}
+	}
+
+	@Override
+	public Description getDescription() {
+		return rootDescription;
+	}
+
+	@Override
+	public void filter(Filter filter) throws NoTestsRemainException {
+		for (Iterator<IsolatedClass> it = isolatedClasses.iterator(); it.hasNext();) {
+			IsolatedClass currentClass = it.next();
+			try {
+				filter.apply(currentClass.runner);
+			} catch (NoTestsRemainException e) {
+				it.remove();
+				currentClass.close();
+			}
+		}
+		if (isolatedClasses.isEmpty()) {
+			throw new NoTestsRemainException();
+		}
+	}
+
+	@Override
+	public void run(final RunNotifier runNotifier) {
+		final Semaphore workers = new Semaphore(parallelism);
+		final boolean concurrently = parallelism > 1 && isolatedClasses.size() > 1;
+		List<Thread> classThreads = new ArrayList<Thread>();
+		for (final IsolatedClass currentClass : isolatedClasses) {
+			Thread classThread = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					RUNNING_CONCURRENTLY.set(concurrently);
+					Thread.currentThread().setContextClassLoader(currentClass.classLoader);
+					try {
+						currentClass.runner.run(runNotifier);
+					} catch (Throwable e) {
+						runNotifier.fireTestFailure(new Failure(currentClass.runner.getDescription(), e));
+					} finally {
+						currentClass.close();
+						workers.release();
+					}
+				}
+			}, currentClass.className);
+			workers.acquireUninterruptibly();
+			classThread.start();
+			classThreads.add(classThread);
+		}
+		for (Thread currentThread : classThreads) {
+			AsyncTestRunner.joinUninterruptibly(currentThread);
+		}
+	}
+
+	/**
+	 * A test class loaded by a class loader of its own together with its runner.
+	 */
+	private static class IsolatedClass {
+
+		private final String className;
+		private final IsolatingClassLoader classLoader;
+		private final Runner runner;
+
+		IsolatedClass(String className, URL[] isolatedUrls) throws InitializationError {
+			this.className = className;
+			this.classLoader = new IsolatingClassLoader(isolatedUrls, IsolatedSuite.class.getClassLoader());
+			Thread currentThread = Thread.currentThread();
+			ClassLoader formerContextClassLoader = currentThread.getContextClassLoader();
+			currentThread.setContextClassLoader(classLoader);
+			try {
+				Class<?> isolatedClass = Class.forName(className, true, classLoader);
+				this.runner = new AllDefaultPossibilitiesBuilder(true).safeRunnerForClass(isolatedClass);
+			} catch (ClassNotFoundException e) {
+				throw new InitializationError(e);
+			} finally {
+				currentThread.setContextClassLoader(formerContextClassLoader);
+			}
+		}
+
+		void close() {
+			try {
+				classLoader.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package de.kdi.junit.runners.agent;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Instruments {@link Thread} to call the {@link ThreadCreationHooks}:<br/>
+ * <ul>
+ * <li>at the end of each constructor which calls the constructor of {@link Object} directly 
+ * (delegating constructors are skipped, so every thread is reported once)</li>
+ * <li>at the beginning of {@link Thread#start()}</li>
+ * </ul>
+ */
+public class ThreadClassTransformer implements ClassFileTransformer {
+
+	static final String THREAD_CLASS_NAME = "java/lang/Thread";
+	static final String HOOKS_CLASS_NAME = "de/kdi/junit/runners/agent/ThreadCreationHooks";
+	static final String HOOK_DESCRIPTOR = "(Ljava/lang/Thread;)V";
+	static final String CREATED_HOOK = "threadCreated";
+	static final String STARTED_HOOK = "threadStarted";
+
+	@Override
+	public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain,
+			byte[] classfileBuffer) {
+		if (!THREAD_CLASS_NAME.equals(className)) {
+			return null;
+		}
+		ClassReader reader = new ClassReader(classfileBuffer);
+		ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+		reader.accept(new ThreadClassVisitor(writer), 0);
+		return writer.toByteArray();
+	}
+
+	private static class ThreadClassVisitor extends ClassVisitor {
+
+		ThreadClassVisitor(ClassVisitor delegate) {
+			super(Opcodes.ASM9, delegate);
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+			MethodVisitor delegate = super.visitMethod(access, name, descriptor, signature, exceptions);
+			if ("<init>".equals(name)) {
+				return new ConstructorVisitor(delegate);
+			}
+			if ("start".equals(name) && "()V".equals(descriptor)) {
+				return new StartVisitor(delegate);
+			}
+			return delegate;
+		}
+	}
+
+	private static class ConstructorVisitor extends MethodVisitor {
+
+		private boolean callsObjectConstructor;
+
+		ConstructorVisitor(MethodVisitor delegate) {
+			super(Opcodes.ASM9, delegate);
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+			super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+			if (opcode == Opcodes.INVOKESPECIAL && "java/lang/Object".equals(owner) && "<init>".equals(name)) {
+				callsObjectConstructor = true;
+			}
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			if (opcode == Opcodes.RETURN && callsObjectConstructor) {
+				callHook(this, CREATED_HOOK);
+			}
+			super.visitInsn(opcode);
+		}
+	}
+
+	private static class StartVisitor extends MethodVisitor {
+
+		StartVisitor(MethodVisitor delegate) {
+			super(Opcodes.ASM9, delegate);
+		}
+
+		@Override
+		public void visitCode() {
+			super.visitCode();
+			callHook(this, STARTED_HOOK);
+		}
+	}
+
+	private static void callHook(MethodVisitor visitor, String hookName) {
+		visitor.visitVarInsn(Opcodes.ALOAD, 0);
+		visitor.visitMethodInsn(Opcodes.INVOKESTATIC, HOOKS_CLASS_NAME, hookName, HOOK_DESCRIPTOR, false);
+	}
+}
@@ -0,0 +1,107 @@
+package de.kdi.junit.runners.agent;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Optional java agent which instruments {@link Thread}, so that the creation and the start of every <br/>
+ * thread are reported to the {@link ThreadCreationHooks} without any polling.<br/>
+ * <br/>
+ * Usage: <br/>
+ * <p>
+ * <i>-javaagent:junit-test-utilities-&lt;version&gt;.jar</i> (asm has to be on the class path)
+ * </p>
+ * The {@link de.kdi.junit.runners.AsyncTestRunner} uses the hooks automatically when the agent is installed.
+ */
+public final class ThreadCreationAgent {
+
+	/**
+	 * Referenced by name only: loading them through this class would define them a second time <br/>
+	 * by the system class loader.
+	 */
+	private static final String HOOKS_CLASS_NAME = "de.kdi.junit.runners.agent.ThreadCreationHooks";
+	private static final String[] BOOTSTRAP_CLASS_NAMES = { HOOKS_CLASS_NAME, "de.kdi.junit.runners.agent.ThreadCreationListener" };
+
+	private ThreadCreationAgent() {}
+
+	public static void premain(String arguments, Instrumentation instrumentation) throws Exception {
+		install(instrumentation);
+	}
+
+	public static void agentmain(String arguments, Instrumentation instrumentation) throws Exception {
+		install(instrumentation);
+	}
+
+	private static void install(Instrumentation instrumentation) throws Exception {
+		if (!instrumentation.isRetransformClassesSupported()) {
+			System.err.println("[WARN] Thread creation agent disabled: retransformation of classes is not supported");
+			return;
+		}
+		instrumentation.appendToBootstrapClassLoaderSearch(createBootstrapJar());
+		Class<?> hooksClass = Class.forName(HOOKS_CLASS_NAME, true, null);
+		addReadEdgeFromThreadModule(instrumentation, hooksClass);
+		instrumentation.addTransformer(new ThreadClassTransformer(), true);
+		instrumentation.retransformClasses(Thread.class);
+		hooksClass.getMethod("markInstalled").invoke(null);
+	}
+
+	/**
+	 * The hooks have to be defined by the bootstrap class loader to be visible from {@link Thread}.
+	 */
+	private static JarFile createBootstrapJar() throws IOException {
+		File jar = File.createTempFile("thread-creation-hooks", ".jar");
+		jar.deleteOnExit();
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			for (String currentClassName : BOOTSTRAP_CLASS_NAMES) {
+				String resourceName = currentClassName.replace('.', '/') + ".class";
+				out.putNextEntry(new ZipEntry(resourceName));
+				copy(ThreadCreationAgent.class.getClassLoader().getResourceAsStream(resourceName), out);
+				out.closeEntry();
+			}
+		} finally {
+			out.close();
+		}
+		return new JarFile(jar);
+	}
+
+	private static void copy(InputStream in, JarOutputStream out) throws IOException {
+		try {
+			byte[] buffer = new byte[4096];
+			for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Since java 9 {@link Thread} lives in a named module, which has to read the unnamed module <br/>
+	 * of the bootstrap class loader to link against the hooks. Done by reflection to stay <br/>
+	 * compatible with older jvms, where nothing has to be done.
+	 */
+	private static void addReadEdgeFromThreadModule(Instrumentation instrumentation, Class<?> hooksClass) throws Exception {
+		Method getModule;
+		try {
+			getModule = Class.class.getMethod("getModule");
+		} catch (NoSuchMethodException e) {
+			return;
+		}
+		Class<?> moduleClass = getModule.getReturnType();
+		Method redefineModule = Instrumentation.class.getMethod("redefineModule", moduleClass, Set.class, Map.class, Map.class,
+				Set.class, Map.class);
+		redefineModule.invoke(instrumentation, getModule.invoke(Thread.class), Collections.singleton(getModule.invoke(hooksClass)),
+				Collections.emptyMap(), Collections.emptyMap(), Collections.emptySet(), Collections.emptyMap());
+	}
+}
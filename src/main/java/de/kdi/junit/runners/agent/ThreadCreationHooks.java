@@ -0,0 +1,55 @@
+package de.kdi.junit.runners.agent;
+
+/**
+ * Entry points called by the instrumented {@link Thread} class.<br/>
+ * This class and the {@link ThreadCreationListener} are appended to the bootstrap class path <br/>
+ * by the {@link ThreadCreationAgent}, so they must not reference any other class of this project.
+ */
+public final class ThreadCreationHooks {
+
+	private static volatile boolean installed;
+	private static volatile ThreadCreationListener listener;
+
+	private ThreadCreationHooks() {}
+
+	public static void threadCreated(Thread thread) {
+		ThreadCreationListener currentListener = listener;
+		if (currentListener != null) {
+			try {
+				currentListener.threadCreated(thread, Thread.currentThread());
+			} catch (Throwable e) {
+				// never break the creation of a thread
+			}
+		}
+	}
+
+	public static void threadStarted(Thread thread) {
+		ThreadCreationListener currentListener = listener;
+		if (currentListener != null) {
+			try {
+				currentListener.threadStarted(thread, Thread.currentThread());
+			} catch (Throwable e) {
+				// never break the start of a thread
+			}
+		}
+	}
+
+	/**
+	 * @return true, if the {@link Thread} class has been instrumented by the {@link ThreadCreationAgent}
+	 */
+	public static boolean isInstalled() {
+		return installed;
+	}
+
+	/**
+	 * Called by the {@link ThreadCreationAgent} after the instrumentation. Has to be public, <br/>
+	 * because the agent and this class are defined by different class loaders.
+	 */
+	public static void markInstalled() {
+		installed = true;
+	}
+
+	public static void setListener(ThreadCreationListener newListener) {
+		listener = newListener;
+	}
+}
@@ -0,0 +1,24 @@
+package de.kdi.junit.runners.agent;
+
+/**
+ * Callback of the {@link ThreadCreationHooks}, invoked synchronously by the creating thread.<br/>
+ * Implementations must be fast and must not throw, they are called for every thread of the jvm.
+ */
+public interface ThreadCreationListener {
+
+	/**
+	 * Called at the end of the constructor of a thread.
+	 *
+	 * @param thread the constructed thread
+	 * @param parent the thread which has constructed the thread
+	 */
+	void threadCreated(Thread thread, Thread parent);
+
+	/**
+	 * Called when {@link Thread#start()} is invoked.
+	 *
+	 * @param thread the thread to be started
+	 * @param starter the thread which has invoked {@link Thread#start()}
+	 */
+	void threadStarted(Thread thread, Thread starter);
+}
@@ -0,0 +1,26 @@
+package de.kdi.junit.runners.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation designed for test methods to invoke their body by several threads at the same time.<br/>
+ * Every thread performs its share of the invocations given by {@link Repeat}, one invocation per thread if absent.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Concurrent {
+
+	/**
+	 * @return the number of threads invoking the test method, the number of available processors if less than one
+	 */
+	int value() default 0;
+
+	/**
+	 * @return true to let all threads wait for each other before every invocation, so the invocations
+	 *         really overlap instead of only the first ones
+	 */
+	boolean startBarrier() default false;
+}
@@ -0,0 +1,23 @@
+package de.kdi.junit.runners.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation designed for test classes and test methods to stop waiting for the created threads as soon <br/>
+ * as one of them has thrown an exception. The threads still alive are interrupted and get the grace period <br/>
+ * to terminate, afterwards the exception is reported at once instead of after the {@link ThreadShutdownTimeout}.
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FailFast {
+
+	int DEFAULT_GRACE_PERIOD = 100;
+
+	/**
+	 * @return the time in milliseconds the interrupted threads get to terminate
+	 */
+	int gracePeriod() default DEFAULT_GRACE_PERIOD;
+}
@@ -0,0 +1,24 @@
+package de.kdi.junit.runners.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation designed for test classes to run their test methods in parallel.<br/>
+ * Each test method runs in a thread of its own {@link ThreadGroup}, so the created threads and their <br/>
+ * uncaught exceptions are related to the right test.
+ *
+ * The parallel execution can also be enabled for all test classes by a system property, see: <br/>
+ * {@link de.kdi.junit.runners.AsyncTestRunner#PARALLELISM_PROPERTY}
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ParallelExecution {
+
+	/**
+	 * @return the maximum number of test methods running at the same time, the number of available processors if less than one
+	 */
+	int value() default 0;
+}
@@ -0,0 +1,30 @@
+package de.kdi.junit.runners.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation designed for test methods to invoke their body several times within a single test run, <br/>
+ * e.g. to hunt races. All invocations share the thread monitoring and the uncaught exception capture <br/>
+ * of the test method. Together with {@link Concurrent} the invocations are spread over several threads.<br/>
+ * <br/>
+ * The throughput, the latency percentiles and the number of failed invocations are published with the <br/>
+ * {@link de.kdi.junit.runners.metrics.AsyncTestMetrics} of the test method.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Repeat {
+
+	/**
+	 * @return the total number of invocations
+	 */
+	int value();
+
+	/**
+	 * @return true to create a new test class instance, including {@link org.junit.Before} and {@link org.junit.After},
+	 *         for every invocation
+	 */
+	boolean newInstance() default false;
+}
@@ -0,0 +1,17 @@
+package de.kdi.junit.runners.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation designed for test classes and test methods to run them with a virtual clock.<br/>
+ * Time measured and waited for by the {@link de.kdi.junit.runners.clock.TestClock} advances instantly <br/>
+ * as soon as all threads of the test are sleeping or blocked. The wait for created threads after the <br/>
+ * invocation, limited by {@link ThreadShutdownTimeout}, uses the virtual clock as well.
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VirtualTime {
+}
@@ -0,0 +1,99 @@
+package de.kdi.junit.runners.await;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import de.kdi.junit.runners.exception.AwaitTimeoutException;
+
+/**
+ * Waits within a test method for the code under test, without polling by fixed sleeps.<br/>
+ * Without an explicit timeout the budget is the {@link de.kdi.junit.runners.annotation.ThreadShutdownTimeout} of the
+ * test method run by the {@link de.kdi.junit.runners.AsyncTestRunner}. An {@link AwaitTimeoutException} is thrown
+ * when it is exceeded. The duration of every await is part of the
+ * {@link de.kdi.junit.runners.metrics.AsyncTestMetrics} of the test method.<br/>
+ * <br/>
+ * Usage:
+ * <pre>
+ * new Thread(new Runnable() {
+ * 	public void run() {
+ * 		done = true;
+ * 		Await.signal(); // evaluates the condition at once
+ * 	}
+ * }).start();
+ * Await.until(new Condition() {
+ * 	public boolean isSatisfied() {
+ * 		return done;
+ * 	}
+ * });
+ * </pre>
+ * Calls outside of a test method run by the runner use {@link de.kdi.junit.runners.model.TestClassModel#DEFAULT_SHUTDOWN_TIMEOUT}.
+ */
+public final class Await {
+
+	private Await() {}
+
+	/**
+	 * Waits until the condition is satisfied. It is evaluated again whenever {@link #signal()} is called, and by a
+	 * backoff up to {@link AwaitContext#MAX_RECHECK_INTERVAL_NANOS} for state changes without signal.
+	 *
+	 * @return the time waited in nanoseconds
+	 */
+	public static long until(Condition condition) throws InterruptedException, AwaitTimeoutException {
+		AwaitContext context = AwaitContext.current();
+		return context.until(condition, context.getDefaultTimeoutMillis());
+	}
+
+	public static long until(Condition condition, long timeoutMillis) throws InterruptedException, AwaitTimeoutException {
+		return AwaitContext.current().until(condition, timeoutMillis);
+	}
+
+	/**
+	 * Wakes the threads of the current test method waiting by {@link #until(Condition)}, call it after changing the
+	 * state they wait for.
+	 */
+	public static void signal() {
+		AwaitContext.current().signalAll();
+	}
+
+	/**
+	 * @return the result of the future
+	 * @throws ExecutionException if the future has failed
+	 */
+	public static <T> T future(Future<T> future) throws InterruptedException, ExecutionException, AwaitTimeoutException {
+		AwaitContext context = AwaitContext.current();
+		return context.future(future, context.getDefaultTimeoutMillis());
+	}
+
+	public static <T> T future(Future<T> future, long timeoutMillis) throws InterruptedException, ExecutionException,
+			AwaitTimeoutException {
+		return AwaitContext.current().future(future, timeoutMillis);
+	}
+
+	/**
+	 * @return the time waited in nanoseconds
+	 */
+	public static long latch(CountDownLatch latch) throws InterruptedException, AwaitTimeoutException {
+		AwaitContext context = AwaitContext.current();
+		return context.latch(latch, context.getDefaultTimeoutMillis());
+	}
+
+	public static long latch(CountDownLatch latch, long timeoutMillis) throws InterruptedException, AwaitTimeoutException {
+		return AwaitContext.current().latch(latch, timeoutMillis);
+	}
+
+	/**
+	 * Waits until every thread created by the test method so far has terminated or is sleeping, waiting or blocked. <br/>
+	 * Without the {@link de.kdi.junit.runners.agent.ThreadCreationAgent} threads created shortly before may not be known yet.
+	 *
+	 * @return the time waited in nanoseconds
+	 */
+	public static long threadsIdle() throws InterruptedException, AwaitTimeoutException {
+		AwaitContext context = AwaitContext.current();
+		return context.threadsIdle(context.getDefaultTimeoutMillis());
+	}
+
+	public static long threadsIdle(long timeoutMillis) throws InterruptedException, AwaitTimeoutException {
+		return AwaitContext.current().threadsIdle(timeoutMillis);
+	}
+}
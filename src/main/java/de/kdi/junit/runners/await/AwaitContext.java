@@ -0,0 +1,218 @@
+package de.kdi.junit.runners.await;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import de.kdi.junit.runners.exception.AwaitTimeoutException;
+import de.kdi.junit.runners.model.TestClassModel;
+import de.kdi.junit.runners.thread.ThreadCreationMonitor;
+
+/**
+ * The awaits of a single test method, bound to the test thread and the threads created by it as <br/>
+ * {@link InheritableThreadLocal}, so {@link Await} can find it.<br/>
+ * <br/>
+ * Nothing is awaited by fixed sleeps:
+ * <ul>
+ * <li>futures and latches are awaited by their own blocking methods</li>
+ * <li>conditions are evaluated again as soon as {@link Await#signal()} is called. Without a signal they are evaluated
+ * again with a backoff from {@link #MIN_RECHECK_INTERVAL_NANOS} to {@link #MAX_RECHECK_INTERVAL_NANOS}</li>
+ * <li>busy threads are joined with the same backoff, so their termination ends the waiting at once</li>
+ * </ul>
+ * The duration of every await is recorded, see {@link #getRecords()}.
+ */
+public class AwaitContext {
+
+	static final long MIN_RECHECK_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	static final long MAX_RECHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static final InheritableThreadLocal<AwaitContext> CURRENT = new InheritableThreadLocal<AwaitContext>();
+
+	/**
+	 * Used outside of test methods run by the runner, without thread tracking and records.
+	 */
+	private static final AwaitContext DETACHED = new AwaitContext(TestClassModel.DEFAULT_SHUTDOWN_TIMEOUT, null);
+
+	private final long defaultTimeoutMillis;
+	private final ThreadCreationMonitor monitor;
+	private final Queue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+	private final AtomicLong signals = new AtomicLong();
+	private final List<AwaitRecord> records = new CopyOnWriteArrayList<AwaitRecord>();
+
+	/**
+	 * @param defaultTimeoutMillis the budget of awaits without an explicit timeout
+	 * @param monitor the threads created by the test method, awaited by {@link #threadsIdle(long)}
+	 */
+	public AwaitContext(long defaultTimeoutMillis, ThreadCreationMonitor monitor) {
+		this.defaultTimeoutMillis = defaultTimeoutMillis;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * @return the context of the calling thread or the detached one
+	 */
+	static AwaitContext current() {
+		AwaitContext result = CURRENT.get();
+		return result == null ? DETACHED : result;
+	}
+
+	/**
+	 * Binds this context to the calling thread.
+	 */
+	public void open() {
+		CURRENT.set(this);
+	}
+
+	public void close() {
+		CURRENT.remove();
+	}
+
+	public long getDefaultTimeoutMillis() {
+		return defaultTimeoutMillis;
+	}
+
+	/**
+	 * @return the awaits finished so far, in the order of their end
+	 */
+	public List<AwaitRecord> getRecords() {
+		return Collections.unmodifiableList(new ArrayList<AwaitRecord>(records));
+	}
+
+	/**
+	 * Wakes all threads waiting for a condition of this context, so they evaluate it again.
+	 */
+	void signalAll() {
+		signals.incrementAndGet();
+		for (Thread currentWaiter : waiters) {
+			LockSupport.unpark(currentWaiter);
+		}
+	}
+
+	/**
+	 * @return the time waited in nanoseconds
+	 */
+	long until(Condition condition, long timeoutMillis) throws InterruptedException, AwaitTimeoutException {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		Thread currentThread = Thread.currentThread();
+		boolean reached = false;
+		waiters.add(currentThread);
+		try {
+			long recheckInterval = MIN_RECHECK_INTERVAL_NANOS;
+			while (true) {
+				long observedSignals = signals.get();
+				if (condition.isSatisfied()) {
+					reached = true;
+					break;
+				}
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					break;
+				}
+				LockSupport.parkNanos(this, Math.min(recheckInterval, remaining)); // a signal since the evaluation returns at once
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				recheckInterval = signals.get() != observedSignals ? MIN_RECHECK_INTERVAL_NANOS : Math.min(recheckInterval << 1,
+						MAX_RECHECK_INTERVAL_NANOS);
+			}
+		} finally {
+			waiters.remove(currentThread);
+		}
+		return finish("condition " + condition, start, reached, timeoutMillis);
+	}
+
+	<T> T future(Future<T> future, long timeoutMillis) throws InterruptedException, ExecutionException, AwaitTimeoutException {
+		String awaited = "future " + future;
+		long start = System.nanoTime();
+		try {
+			T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+			record(awaited, start, true);
+			return result;
+		} catch (ExecutionException e) {
+			record(awaited, start, true);
+			throw e;
+		} catch (TimeoutException e) {
+			record(awaited, start, false);
+			throw new AwaitTimeoutException(awaited, timeoutMillis);
+		}
+	}
+
+	long latch(CountDownLatch latch, long timeoutMillis) throws InterruptedException, AwaitTimeoutException {
+		long start = System.nanoTime();
+		boolean reached = latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		return finish("latch " + latch, start, reached, timeoutMillis);
+	}
+
+	/**
+	 * Waits until every thread created by the test method has terminated or is sleeping, waiting or blocked.
+	 */
+	long threadsIdle(long timeoutMillis) throws InterruptedException, AwaitTimeoutException {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		long recheckInterval = MIN_RECHECK_INTERVAL_NANOS;
+		Thread busyThread;
+		while ((busyThread = findBusyThread()) != null) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			TimeUnit.NANOSECONDS.timedJoin(busyThread, Math.min(recheckInterval, remaining));
+			recheckInterval = Math.min(recheckInterval << 1, MAX_RECHECK_INTERVAL_NANOS);
+		}
+		return finish(busyThread == null ? "idle threads" : "idle threads (" + busyThread + " is running)", start, busyThread == null,
+				timeoutMillis);
+	}
+
+	/**
+	 * @return a running thread created by the test method, except the calling thread, or null
+	 */
+	private Thread findBusyThread() {
+		if (monitor == null) {
+			return null;
+		}
+		Set<Thread> createdThreads = monitor.getCreatedThreads();
+		List<Thread> threads;
+		synchronized (createdThreads) {
+			threads = new ArrayList<Thread>(createdThreads);
+		}
+		Thread currentThread = Thread.currentThread();
+		for (Thread candidate : threads) {
+			if (candidate != currentThread && candidate.getState() == Thread.State.RUNNABLE) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the time waited in nanoseconds
+	 * @throws AwaitTimeoutException if not reached
+	 */
+	private long finish(String awaited, long start, boolean reached, long timeoutMillis) throws AwaitTimeoutException {
+		long result = record(awaited, start, reached);
+		if (!reached) {
+			throw new AwaitTimeoutException(awaited, timeoutMillis);
+		}
+		return result;
+	}
+
+	private long record(String awaited, long start, boolean reached) {
+		long nanos = System.nanoTime() - start;
+		if (this != DETACHED) {
+			records.add(new AwaitRecord(awaited, nanos, reached));
+		}
+		return nanos;
+	}
+}
@@ -0,0 +1,44 @@
+package de.kdi.junit.runners.await;
+
+/**
+ * Duration and outcome of a single await of a test method, see
+ * {@link de.kdi.junit.runners.metrics.AsyncTestMetrics#getAwaits()}.
+ */
+public final class AwaitRecord {
+
+	private final String awaited;
+	private final long nanos;
+	private final boolean reached;
+
+	AwaitRecord(String awaited, long nanos, boolean reached) {
+		this.awaited = awaited;
+		this.nanos = nanos;
+		this.reached = reached;
+	}
+
+	/**
+	 * @return the description of the condition, future, latch or threads awaited
+	 */
+	public String getAwaited() {
+		return awaited;
+	}
+
+	/**
+	 * @return the time spent waiting
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return false when the await has timed out
+	 */
+	public boolean isReached() {
+		return reached;
+	}
+
+	@Override
+	public String toString() {
+		return awaited + (reached ? " reached after " : " timed out after ") + nanos + " ns";
+	}
+}
@@ -0,0 +1,10 @@
+package de.kdi.junit.runners.await;
+
+/**
+ * A state of the code under test awaited by {@link Await#until(Condition)}.<br/>
+ * The condition is evaluated by the waiting thread, so it has to read the state thread safe.
+ */
+public interface Condition {
+
+	boolean isSatisfied();
+}
@@ -0,0 +1,101 @@
+package de.kdi.junit.runners.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time source for test code and code under test, which is virtual within test methods annotated with <br/>
+ * {@link de.kdi.junit.runners.annotation.VirtualTime} and real otherwise. Timers and retries sleeping <br/>
+ * by {@link #sleep(long)} or measuring by the {@link #clock()} finish instantly in virtual time, as <br/>
+ * soon as nothing else is running.<br/>
+ * <br/>
+ * The virtual clock of a test method is inherited by the threads it creates. {@link Thread#sleep(long)} <br/>
+ * and {@link System#nanoTime()} can not be virtualized, the code under test has to use this class <br/>
+ * or a {@link Clock} passed to it.
+ */
+public final class TestClock {
+
+	private TestClock() {}
+
+	/**
+	 * @return true if the calling thread belongs to a test method running with virtual time
+	 */
+	public static boolean isVirtual() {
+		return VirtualClock.current() != null;
+	}
+
+	public static void sleep(long millis) throws InterruptedException {
+		sleep(millis, TimeUnit.MILLISECONDS);
+	}
+
+	public static void sleep(long duration, TimeUnit unit) throws InterruptedException {
+		VirtualClock current = VirtualClock.current();
+		if (current == null) {
+			unit.sleep(duration);
+		} else {
+			current.sleep(unit.toNanos(duration));
+		}
+	}
+
+	public static long nanoTime() {
+		VirtualClock current = VirtualClock.current();
+		return current == null ? System.nanoTime() : current.nanoTime();
+	}
+
+	public static long currentTimeMillis() {
+		VirtualClock current = VirtualClock.current();
+		return current == null ? System.currentTimeMillis() : current.currentTimeMillis();
+	}
+
+	/**
+	 * Advances the virtual time, without effect for real time.
+	 */
+	public static void advance(long duration, TimeUnit unit) {
+		VirtualClock current = VirtualClock.current();
+		if (current != null) {
+			current.advance(unit.toNanos(duration));
+		}
+	}
+
+	/**
+	 * @return a clock in the default time zone following the virtual time of the calling thread at the time of this call
+	 */
+	public static Clock clock() {
+		VirtualClock current = VirtualClock.current();
+		return current == null ? Clock.systemDefaultZone() : new VirtualJavaClock(current, ZoneId.systemDefault());
+	}
+
+	private static class VirtualJavaClock extends Clock {
+
+		private final VirtualClock clock;
+		private final ZoneId zone;
+
+		VirtualJavaClock(VirtualClock clock, ZoneId zone) {
+			this.clock = clock;
+			this.zone = zone;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return zone;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return new VirtualJavaClock(clock, zone);
+		}
+
+		@Override
+		public long millis() {
+			return clock.currentTimeMillis();
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis());
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+package de.kdi.junit.runners.clock;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import de.kdi.junit.runners.thread.ThreadCreationMonitor;
+import de.kdi.junit.runners.thread.ThreadShutdownWaiter;
+
+/**
+ * Clock of a test method annotated with {@link de.kdi.junit.runners.annotation.VirtualTime}.<br/>
+ * The virtual time runs with the real time, but a driver thread lets it jump to the earliest deadline <br/>
+ * of the threads sleeping by {@link #sleep(long)} as soon as all tracked threads are idle: the test thread <br/>
+ * and the live threads recorded by the {@link ThreadCreationMonitor}. A thread is idle while sleeping on <br/>
+ * this clock, waiting or blocked. It has to be idle in two consecutive checks of the driver, so a thread <br/>
+ * just leaving a lock is not taken for idle.<br/>
+ * <br/>
+ * Threads not recorded by the monitor, e.g. of pools created before the test, are not taken into account.
+ */
+public class VirtualClock implements Runnable {
+
+	static final long MIN_CHECK_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	static final long MAX_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long MAX_JOIN_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final InheritableThreadLocal<VirtualClock> CURRENT = new InheritableThreadLocal<VirtualClock>();
+
+	private final ThreadCreationMonitor monitor;
+	private final Map<Thread, Long> sleepers = new ConcurrentHashMap<Thread, Long>();
+	private final AtomicLong skippedNanos = new AtomicLong();
+	private final List<Thread> trackedThreads = new ArrayList<Thread>();
+	private Thread testThread;
+	private Thread driver;
+	private volatile boolean closed;
+
+	public VirtualClock(ThreadCreationMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * @return the clock of the test method the calling thread belongs to or null
+	 */
+	public static VirtualClock current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Starts the driver and makes this clock the current one of the calling thread and the threads created by it.
+	 */
+	public void open() {
+		testThread = Thread.currentThread();
+		ThreadGroup rootGroup = testThread.getThreadGroup();
+		while (rootGroup.getParent() != null) {
+			rootGroup = rootGroup.getParent();
+		}
+		driver = new Thread(rootGroup, this, "VirtualClock");
+		driver.setDaemon(true);
+		driver.start();
+		CURRENT.set(this);
+	}
+
+	/**
+	 * Stops the driver. Threads still sleeping afterwards continue with the real time.
+	 */
+	public void close() throws InterruptedException {
+		CURRENT.remove();
+		closed = true;
+		if (driver != null) {
+			LockSupport.unpark(driver);
+			driver.join();
+		}
+	}
+
+	public long nanoTime() {
+		return System.nanoTime() + skippedNanos.get();
+	}
+
+	public long currentTimeMillis() {
+		return System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(skippedNanos.get());
+	}
+
+	/**
+	 * Advances the virtual time and wakes the sleeping threads whose deadline has passed.
+	 */
+	public void advance(long nanos) {
+		if (nanos > 0) {
+			skippedNanos.addAndGet(nanos);
+			wakeDueSleepers();
+		}
+	}
+
+	public void sleep(long nanos) throws InterruptedException {
+		await(null, nanos);
+	}
+
+	/**
+	 * Waits for the termination of the thread at most the given virtual time.
+	 */
+	public void join(Thread thread, long nanos) throws InterruptedException {
+		await(thread, nanos);
+	}
+
+	/**
+	 * Parks the calling thread at most the given real time. Meanwhile it counts as sleeping until the <br/>
+	 * given deadline of this clock, so the clock may advance.
+	 */
+	void pause(long realNanos, long deadline) throws InterruptedException {
+		Thread current = Thread.currentThread();
+		sleepers.put(current, deadline);
+		try {
+			LockSupport.parkNanos(this, realNanos);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		} finally {
+			sleepers.remove(current);
+		}
+	}
+
+	private void await(Thread thread, long nanos) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		Thread current = Thread.currentThread();
+		long deadline = nanoTime() + nanos;
+		sleepers.put(current, deadline);
+		try {
+			long remaining;
+			while ((remaining = deadline - nanoTime()) > 0 && (thread == null || thread.isAlive())) {
+				LockSupport.parkNanos(this, thread == null ? remaining : Math.min(remaining, MAX_JOIN_PARK_NANOS));
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+		} finally {
+			sleepers.remove(current);
+		}
+	}
+
+	/**
+	 * @return a waiter measuring the timeout by this clock
+	 */
+	public ThreadShutdownWaiter newShutdownWaiter(long timeoutMillis) {
+		return new VirtualShutdownWaiter(this, timeoutMillis);
+	}
+
+	@Override
+	public void run() {
+		long checkInterval = MIN_CHECK_INTERVAL_NANOS;
+		boolean idleBefore = false;
+		while (!closed) {
+			boolean idle = !sleepers.isEmpty() && allTrackedThreadsIdle();
+			if (idle && idleBefore) {
+				advanceToEarliestDeadline();
+				checkInterval = MIN_CHECK_INTERVAL_NANOS;
+				idle = false;
+			} else if (!idle) {
+				checkInterval = Math.min(checkInterval << 1, MAX_CHECK_INTERVAL_NANOS);
+			}
+			idleBefore = idle;
+			LockSupport.parkNanos(this, idle ? MIN_CHECK_INTERVAL_NANOS : checkInterval);
+		}
+	}
+
+	private boolean allTrackedThreadsIdle() {
+		Set<Thread> createdThreads = monitor.getCreatedThreads();
+		synchronized (createdThreads) {
+			trackedThreads.addAll(createdThreads);
+		}
+		trackedThreads.add(testThread);
+		try {
+			for (Thread currentThread : trackedThreads) {
+				if (!isIdle(currentThread)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			trackedThreads.clear();
+		}
+	}
+
+	private boolean isIdle(Thread thread) {
+		if (thread == driver || sleepers.containsKey(thread)) {
+			return true;
+		}
+		Thread.State state = thread.getState();
+		return state == Thread.State.WAITING || state == Thread.State.BLOCKED || state == Thread.State.TERMINATED
+				|| state == Thread.State.NEW;
+	}
+
+	private void advanceToEarliestDeadline() {
+		long earliest = Long.MAX_VALUE;
+		for (Long currentDeadline : sleepers.values()) {
+			earliest = Math.min(earliest, currentDeadline);
+		}
+		long now = nanoTime();
+		if (earliest != Long.MAX_VALUE && earliest > now) {
+			skippedNanos.addAndGet(earliest - now);
+		}
+		wakeDueSleepers();
+	}
+
+	/**
+	 * Removes the due sleepers before waking them, so they are busy until they sleep again.
+	 */
+	private void wakeDueSleepers() {
+		long now = nanoTime();
+		for (Iterator<Map.Entry<Thread, Long>> it = sleepers.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Thread, Long> currentEntry = it.next();
+			if (currentEntry.getValue() <= now) {
+				it.remove();
+				LockSupport.unpark(currentEntry.getKey());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package de.kdi.junit.runners.clock;
+
+import de.kdi.junit.runners.thread.ThreadShutdownWaiter;
+
+/**
+ * {@link ThreadShutdownWaiter} measuring its deadline by a {@link VirtualClock}.
+ */
+class VirtualShutdownWaiter extends ThreadShutdownWaiter {
+
+	private final VirtualClock clock;
+
+	VirtualShutdownWaiter(VirtualClock clock, long timeoutMillis) {
+		super(timeoutMillis, clock.nanoTime());
+		this.clock = clock;
+	}
+
+	@Override
+	protected long nanoTime() {
+		return clock.nanoTime();
+	}
+
+	@Override
+	public boolean isVirtual() {
+		return true;
+	}
+
+	/**
+	 * Counts as sleeping until the deadline, so the clock may advance to an earlier deadline meanwhile.
+	 */
+	@Override
+	public void pause(long nanos) throws InterruptedException {
+		clock.pause(nanos, nanoTime() + getRemainingNanos());
+	}
+
+	@Override
+	protected void join(Thread thread, long nanos) throws InterruptedException {
+		clock.join(thread, nanos);
+	}
+
+}
@@ -1,29 +1,120 @@
 package de.kdi.junit.runners.exception;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import de.kdi.junit.runners.thread.RecordedException;
+
 
 public class AsynchronousTestRunnerException extends Exception {
 
 	private static final long serialVersionUID = 1L;
+
+	static final int MAX_LISTED_THREADS = 10;
 	
-	private Map<Long, Throwable> threadIdAndCorrespondingException;
+	private transient List<RecordedException> recordedExceptions;
+	private long droppedCount;
+	private transient volatile List<FailureGroup> failureGroups;
+	private volatile String message;
 
 	public AsynchronousTestRunnerException(Map<Long, Throwable> threadIdAndCorrespondingException) {
-		this.threadIdAndCorrespondingException = threadIdAndCorrespondingException;
+		this(toRecordedExceptions(threadIdAndCorrespondingException), 0);
+	}
+
+	/**
+	 * @param recordedExceptions the stored exceptions in the order of their arrival
+	 * @param droppedCount the number of exceptions which have been counted, but not stored
+	 */
+	public AsynchronousTestRunnerException(List<RecordedException> recordedExceptions, long droppedCount) {
+		this.recordedExceptions = recordedExceptions;
+		this.droppedCount = droppedCount;
+	}
+
+	private static List<RecordedException> toRecordedExceptions(Map<Long, Throwable> threadIdAndCorrespondingException) {
+		List<RecordedException> result = new ArrayList<RecordedException>();
+		for (Entry<Long, Throwable> currentEntry : threadIdAndCorrespondingException.entrySet()) {
+			result.add(new RecordedException(result.size(), currentEntry.getKey().longValue(), null, currentEntry.getValue()));
+		}
+		return result;
+	}
+
+	public List<RecordedException> getRecordedExceptions() {
+		return recordedExceptions;
+	}
+
+	public long getDroppedCount() {
+		return droppedCount;
 	}
 	
+	/**
+	 * @return the recorded exceptions grouped by their stack, computed once
+	 */
+	public List<FailureGroup> getFailureGroups() {
+		if (failureGroups == null) {
+			failureGroups = FailureGroup.group(recordedExceptions);
+		}
+		return failureGroups;
+	}
+
+	/**
+	 * Renders one stack trace per {@link FailureGroup} together with the number of its exceptions and <br/>
+	 * the ids of the first threads. The message is rendered once, the details of every single exception <br/>
+	 * are available by {@link #getRecordedExceptions()}.
+	 */
 	@Override
 	public String getMessage() {
+		if (message == null) {
+			message = renderMessage();
+		}
+		return message;
+	}
+
+	/**
+	 * The recorded exceptions are not serialized, so the message is rendered before.
+	 */
+	private void writeObject(ObjectOutputStream output) throws IOException {
+		getMessage();
+		output.defaultWriteObject();
+	}
+
+	/**
+	 * A deserialized exception has no recorded exceptions, they are part of the message only.
+	 */
+	private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		recordedExceptions = Collections.emptyList();
+	}
+
+	private String renderMessage() {
+		List<FailureGroup> groups = getFailureGroups();
 		StringBuilder resultBuilder = new StringBuilder();
-		for(Entry<Long, Throwable> currentEntry : threadIdAndCorrespondingException.entrySet()){
-			resultBuilder.append("Exception recoreded in Thread with ID = ");
-			resultBuilder.append(currentEntry.getKey());
+		resultBuilder.append(recordedExceptions.size());
+		resultBuilder.append(" exceptions recorded with ");
+		resultBuilder.append(groups.size());
+		resultBuilder.append(" distinct stack traces\n");
+		for (FailureGroup currentGroup : groups) {
+			resultBuilder.append(currentGroup.getCount());
+			resultBuilder.append(" x exception recoreded in Thread with ID = ");
+			List<RecordedException> members = currentGroup.getMembers();
+			for (int i = 0; i < Math.min(members.size(), MAX_LISTED_THREADS); i++) {
+				if (i > 0) {
+					resultBuilder.append(", ");
+				}
+				resultBuilder.append(members.get(i).getThreadId());
+			}
+			if (members.size() > MAX_LISTED_THREADS) {
+				resultBuilder.append(" and ").append(members.size() - MAX_LISTED_THREADS).append(" more");
+			}
 			resultBuilder.append("\nmessage was: ");
-			Throwable currentThrowable = currentEntry.getValue();
+			Throwable currentThrowable = currentGroup.getRepresentative().getThrowable();
 			resultBuilder.append(currentThrowable);
 			resultBuilder.append("\nStacktrace:\n");
 			StringWriter sw = new StringWriter();
@@ -31,6 +122,10 @@ public class AsynchronousTestRunnerException extends Exception {
 			resultBuilder.append(sw.toString());
 			resultBuilder.append("\n");
 		}
+		if (droppedCount > 0) {
+			resultBuilder.append(droppedCount);
+			resultBuilder.append(" further exceptions have been counted, but not recorded\n");
+		}
 		return resultBuilder.toString();
 	}
 	
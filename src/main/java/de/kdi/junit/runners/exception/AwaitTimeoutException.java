@@ -0,0 +1,20 @@
+package de.kdi.junit.runners.exception;
+
+public class AwaitTimeoutException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long timeoutMillis;
+
+	/**
+	 * @param awaited the description of the condition, future, latch or threads awaited
+	 */
+	public AwaitTimeoutException(String awaited, long timeoutMillis) {
+		super(awaited + " not reached within " + timeoutMillis + " milliseconds");
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+}
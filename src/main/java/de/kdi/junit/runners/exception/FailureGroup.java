@@ -0,0 +1,90 @@
+package de.kdi.junit.runners.exception;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.kdi.junit.runners.thread.RecordedException;
+
+/**
+ * Recorded exceptions of the same type thrown at the same stack, e.g. by many workers of a stress test <br/>
+ * running into the same bug. The first exception of the group represents all of them.
+ */
+public class FailureGroup {
+
+	private final List<RecordedException> members = new ArrayList<RecordedException>();
+
+	private FailureGroup() {}
+
+	/**
+	 * @return the groups in the order of the arrival of their first exception
+	 */
+	public static List<FailureGroup> group(List<RecordedException> recordedExceptions) {
+		Map<StackSignature, FailureGroup> groups = new LinkedHashMap<StackSignature, FailureGroup>();
+		for (RecordedException currentRecord : recordedExceptions) {
+			StackSignature signature = new StackSignature(currentRecord.getThrowable());
+			FailureGroup group = groups.get(signature);
+			if (group == null) {
+				group = new FailureGroup();
+				groups.put(signature, group);
+			}
+			group.members.add(currentRecord);
+		}
+		return new ArrayList<FailureGroup>(groups.values());
+	}
+
+	/**
+	 * @return the first exception of the group
+	 */
+	public RecordedException getRepresentative() {
+		return members.get(0);
+	}
+
+	public int getCount() {
+		return members.size();
+	}
+
+	/**
+	 * @return all exceptions of the group in the order of their arrival
+	 */
+	public List<RecordedException> getMembers() {
+		return Collections.unmodifiableList(members);
+	}
+
+	@Override
+	public String toString() {
+		return getCount() + " x " + getRepresentative().getThrowable();
+	}
+
+	/**
+	 * The type and stack of a throwable and its causes, the messages are ignored.
+	 */
+	private static class StackSignature {
+
+		private final List<Object> elements = new ArrayList<Object>();
+		private final int hashCode;
+
+		StackSignature(Throwable throwable) {
+			for (Throwable current = throwable; current != null && elements.size() < 64; current = current.getCause()) {
+				elements.add(current.getClass());
+				elements.add(Arrays.asList(current.getStackTrace()));
+			}
+			hashCode = elements.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof StackSignature && hashCode == ((StackSignature) other).hashCode
+					&& elements.equals(((StackSignature) other).elements);
+		}
+	}
+
+}
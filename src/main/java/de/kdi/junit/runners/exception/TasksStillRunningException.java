@@ -0,0 +1,23 @@
+package de.kdi.junit.runners.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TasksStillRunningException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient List<Object> busyExecutorsAndFutures = Collections.emptyList();
+
+	/**
+	 * @param busyExecutorsAndFutures the executors and futures which have not been quiescent in time
+	 */
+	public TasksStillRunningException(String reason, List<Object> busyExecutorsAndFutures) {
+		super(reason);
+		this.busyExecutorsAndFutures = busyExecutorsAndFutures;
+	}
+
+	public List<Object> getBusyExecutorsAndFutures() {
+		return busyExecutorsAndFutures;
+	}
+}
@@ -0,0 +1,21 @@
+package de.kdi.junit.runners.exception;
+
+public class TestTimedOutException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long timeoutMillis;
+
+	/**
+	 * @param stackSnapshot the stack of the test thread when the timeout expired, used as stack trace
+	 */
+	public TestTimedOutException(String threadName, long timeoutMillis, StackTraceElement[] stackSnapshot) {
+		super("test timed out after " + timeoutMillis + " milliseconds in thread " + threadName);
+		this.timeoutMillis = timeoutMillis;
+		setStackTrace(stackSnapshot);
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+}
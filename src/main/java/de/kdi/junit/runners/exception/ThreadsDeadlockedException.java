@@ -0,0 +1,24 @@
+package de.kdi.junit.runners.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ThreadsDeadlockedException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient List<Thread> deadlockedThreads = Collections.emptyList();
+
+	/**
+	 * @param lockGraph the locks the threads wait for, their owners and the stacks of all threads involved
+	 * @param deadlockedThreads the threads of the test method which are deadlocked
+	 */
+	public ThreadsDeadlockedException(String lockGraph, List<Thread> deadlockedThreads) {
+		super(lockGraph);
+		this.deadlockedThreads = deadlockedThreads;
+	}
+
+	public List<Thread> getDeadlockedThreads() {
+		return deadlockedThreads;
+	}
+}
@@ -1,10 +1,32 @@
 package de.kdi.junit.runners.exception;
 
+import java.util.Collections;
+import java.util.List;
+
 public class ThreadsStillAliveException extends Exception {
 	
 	private static final long serialVersionUID = 1L;
+
+	private transient List<Thread> stillAliveThreads = Collections.emptyList();
 	
 	public ThreadsStillAliveException(String reason) {
 		super(reason);
 	}
+
+	public ThreadsStillAliveException(String reason, Throwable creationSite) {
+		super(reason, creationSite);
+	}
+
+	/**
+	 * @param stillAliveThreads all threads which have not been terminated in time
+	 * @param creationSite the creation site of the first thread or null, if unknown
+	 */
+	public ThreadsStillAliveException(String reason, List<Thread> stillAliveThreads, Throwable creationSite) {
+		super(reason, creationSite);
+		this.stillAliveThreads = stillAliveThreads;
+	}
+
+	public List<Thread> getStillAliveThreads() {
+		return stillAliveThreads;
+	}
 }
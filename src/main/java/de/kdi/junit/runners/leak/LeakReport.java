@@ -0,0 +1,74 @@
+package de.kdi.junit.runners.leak;
+
+/**
+ * Non daemon threads a test class has left behind, together with the growth of the jvm wide resources since the <br/>
+ * first test class, see {@link SuiteResourceTracker#getLeakReports()}.
+ */
+public final class LeakReport {
+
+	private final String testClassName;
+	private final int leftThreads;
+	private final int suiteThreadGrowth;
+	private final long suiteHeapGrowthBytes;
+	private final long suiteFileDescriptorGrowth;
+	private final int quarantinedThreads;
+
+	LeakReport(String testClassName, int leftThreads, ResourceSample baseline, ResourceSample current, int quarantinedThreads) {
+		this.testClassName = testClassName;
+		this.leftThreads = leftThreads;
+		this.suiteThreadGrowth = current.getLiveThreads() - baseline.getLiveThreads();
+		this.suiteHeapGrowthBytes = current.getUsedHeapBytes() - baseline.getUsedHeapBytes();
+		this.suiteFileDescriptorGrowth = current.getOpenFileDescriptors() < 0 ? 0 : current.getOpenFileDescriptors()
+				- baseline.getOpenFileDescriptors();
+		this.quarantinedThreads = quarantinedThreads;
+	}
+
+	public String getTestClassName() {
+		return testClassName;
+	}
+
+	/**
+	 * @return the number of live non daemon threads more than before the test class
+	 */
+	public int getLeftThreads() {
+		return leftThreads;
+	}
+
+	public int getSuiteThreadGrowth() {
+		return suiteThreadGrowth;
+	}
+
+	public long getSuiteHeapGrowthBytes() {
+		return suiteHeapGrowthBytes;
+	}
+
+	/**
+	 * @return the growth of the open file descriptors, 0 if they can't be counted
+	 */
+	public long getSuiteFileDescriptorGrowth() {
+		return suiteFileDescriptorGrowth;
+	}
+
+	/**
+	 * @return the number of threads quarantined by the {@link ThreadReclaimer} and still alive
+	 */
+	public int getQuarantinedThreads() {
+		return quarantinedThreads;
+	}
+
+	/**
+	 * @return the report as single line json object, the class name must not need escaping
+	 */
+	public String toJson() {
+		return "{\"leakingClass\":\"" + testClassName + "\",\"leftThreads\":" + leftThreads + ",\"suiteThreadGrowth\":" + suiteThreadGrowth
+				+ ",\"suiteHeapGrowthBytes\":" + suiteHeapGrowthBytes + ",\"suiteFileDescriptorGrowth\":" + suiteFileDescriptorGrowth
+				+ ",\"quarantinedThreads\":" + quarantinedThreads + "}";
+	}
+
+	@Override
+	public String toString() {
+		return testClassName + " left " + leftThreads + " threads behind, growth of the suite: " + suiteThreadGrowth + " threads, "
+				+ suiteHeapGrowthBytes / 1024 + " KiB heap, " + suiteFileDescriptorGrowth + " file descriptors, " + quarantinedThreads
+				+ " threads quarantined";
+	}
+}
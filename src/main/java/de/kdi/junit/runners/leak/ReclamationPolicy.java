@@ -0,0 +1,52 @@
+package de.kdi.junit.runners.leak;
+
+/**
+ * What the {@link ThreadReclaimer} does with threads of a test method still alive after its timeout.<br/>
+ * The policy is chosen by the system property {@link #PROPERTY}, {@link #NONE} by default or if the <br/>
+ * property names no policy.
+ */
+public enum ReclamationPolicy {
+
+	/**
+	 * The threads are left alone.
+	 */
+	NONE,
+
+	/**
+	 * The non daemon threads are interrupted and get the grace period to terminate. Threads still alive <br/>
+	 * afterwards are quarantined and reported.
+	 */
+	INTERRUPT;
+
+	public static final String PROPERTY = "de.kdi.junit.runners.reclamation";
+	public static final String GRACE_PERIOD_PROPERTY = "de.kdi.junit.runners.reclamation.gracePeriod";
+	public static final long DEFAULT_GRACE_PERIOD = 200;
+
+	private static volatile String reportedInvalidValue;
+
+	/**
+	 * @return the policy given by the system property or {@link #NONE}, if it names no policy
+	 */
+	public static ReclamationPolicy current() {
+		String value = System.getProperty(PROPERTY);
+		if (value == null) {
+			return NONE;
+		}
+		try {
+			return valueOf(value.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			if (!value.equals(reportedInvalidValue)) { // once per value, it is read after every failing test
+				reportedInvalidValue = value;
+				System.err.println("[WARN] Unknown thread reclamation policy " + PROPERTY + "=" + value + ", using " + NONE);
+			}
+			return NONE;
+		}
+	}
+
+	/**
+	 * @return the grace period in milliseconds given by the system property
+	 */
+	public static long currentGracePeriod() {
+		return Long.getLong(GRACE_PERIOD_PROPERTY, DEFAULT_GRACE_PERIOD);
+	}
+}
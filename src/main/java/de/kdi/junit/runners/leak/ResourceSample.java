@@ -0,0 +1,66 @@
+package de.kdi.junit.runners.leak;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Jvm wide resources at a point in time: live threads, used heap and open file descriptors.<br/>
+ * Taking a sample is cheap, no stack traces or thread snapshots are involved. The number of open <br/>
+ * file descriptors is -1 if not supported by the jvm or the operating system.
+ */
+public final class ResourceSample {
+
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+	private static final MemoryMXBean MEMORY_BEAN = ManagementFactory.getMemoryMXBean();
+	private static final OperatingSystemMXBean OPERATING_SYSTEM_BEAN = ManagementFactory.getOperatingSystemMXBean();
+
+	private final int liveThreads;
+	private final int daemonThreads;
+	private final long usedHeapBytes;
+	private final long openFileDescriptors;
+
+	ResourceSample(int liveThreads, int daemonThreads, long usedHeapBytes, long openFileDescriptors) {
+		this.liveThreads = liveThreads;
+		this.daemonThreads = daemonThreads;
+		this.usedHeapBytes = usedHeapBytes;
+		this.openFileDescriptors = openFileDescriptors;
+	}
+
+	public static ResourceSample take() {
+		return new ResourceSample(THREAD_BEAN.getThreadCount(), THREAD_BEAN.getDaemonThreadCount(), MEMORY_BEAN.getHeapMemoryUsage().getUsed(),
+				countOpenFileDescriptors());
+	}
+
+	private static long countOpenFileDescriptors() {
+		try {
+			if (OPERATING_SYSTEM_BEAN instanceof com.sun.management.UnixOperatingSystemMXBean) {
+				return ((com.sun.management.UnixOperatingSystemMXBean) OPERATING_SYSTEM_BEAN).getOpenFileDescriptorCount();
+			}
+		} catch (LinkageError e) { // not a hotspot based jvm
+		}
+		return -1;
+	}
+
+	public int getLiveThreads() {
+		return liveThreads;
+	}
+
+	public int getNonDaemonThreads() {
+		return liveThreads - daemonThreads;
+	}
+
+	public long getUsedHeapBytes() {
+		return usedHeapBytes;
+	}
+
+	public long getOpenFileDescriptors() {
+		return openFileDescriptors;
+	}
+
+	@Override
+	public String toString() {
+		return liveThreads + " threads, " + usedHeapBytes / 1024 + " KiB heap, " + openFileDescriptors + " file descriptors";
+	}
+}
@@ -0,0 +1,79 @@
+package de.kdi.junit.runners.leak;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracks the growth of the jvm wide resources across the test classes run by the <br/>
+ * {@link de.kdi.junit.runners.AsyncTestRunner}. The baseline is sampled when the first test class starts. <br/>
+ * A test class leaving more live non daemon threads behind than there were before it gets a {@link LeakReport} <br/>
+ * including the growth of the suite since the baseline, which is appended to the metrics report as well. <br/>
+ * While test classes run at the same time, the growth can't be attributed exactly.
+ */
+public final class SuiteResourceTracker {
+
+	static final int MAX_LEAK_REPORTS = 1024;
+
+	private static final SuiteResourceTracker INSTANCE = new SuiteResourceTracker();
+
+	private ResourceSample baseline;
+	private ResourceSample latest;
+	private final List<LeakReport> leakReports = new ArrayList<LeakReport>();
+
+	private SuiteResourceTracker() {}
+
+	public static SuiteResourceTracker getInstance() {
+		return INSTANCE;
+	}
+
+	public synchronized void classStarted() {
+		if (baseline == null) {
+			baseline = ResourceSample.take();
+			latest = baseline;
+		}
+	}
+
+	/**
+	 * Samples the resources and records a report if the test class has left threads behind.
+	 *
+	 * @return the report or null if the test class has not left threads behind
+	 */
+	public synchronized LeakReport classFinished(Class<?> testClass) {
+		classStarted();
+		ResourceSample current = ResourceSample.take();
+		int leftThreads = current.getNonDaemonThreads() - latest.getNonDaemonThreads(); // daemon threads like the services of the runner don't count
+		LeakReport result = null;
+		if (leftThreads > 0) {
+			result = new LeakReport(testClass.getName(), leftThreads, baseline, current, ThreadReclaimer.getInstance().getQuarantinedCount());
+			if (leakReports.size() == MAX_LEAK_REPORTS) {
+				leakReports.remove(0);
+			}
+			leakReports.add(result);
+		}
+		latest = current;
+		return result;
+	}
+
+	/**
+	 * @return the reports of the last {@link #MAX_LEAK_REPORTS} test classes which have left threads behind
+	 */
+	public synchronized List<LeakReport> getLeakReports() {
+		return Collections.unmodifiableList(new ArrayList<LeakReport>(leakReports));
+	}
+
+	/**
+	 * @return the sample taken when the first test class started or null
+	 */
+	public synchronized ResourceSample getBaseline() {
+		return baseline;
+	}
+
+	/**
+	 * @return the sample taken when the last test class finished or the baseline
+	 */
+	public synchronized ResourceSample getLatest() {
+		return latest;
+	}
+
+}
@@ -0,0 +1,99 @@
+package de.kdi.junit.runners.leak;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.kdi.junit.runners.thread.ThreadCreationMonitor;
+import de.kdi.junit.runners.thread.VirtualThreads;
+
+/**
+ * Reclaims the non daemon threads a failed test method has left behind, according to the {@link ReclamationPolicy}.<br/>
+ * Threads ignoring their interruption are quarantined: they are reported once together with their <br/>
+ * creation site and counted by {@link #getQuarantinedCount()} until they terminate, so the growth of the <br/>
+ * suite can be told apart from threads of a single test class.
+ */
+public final class ThreadReclaimer {
+
+	private static final ThreadReclaimer INSTANCE = new ThreadReclaimer();
+
+	private final List<Thread> quarantinedThreads = new ArrayList<Thread>();
+
+	private ThreadReclaimer() {}
+
+	public static ThreadReclaimer getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Reclaims the threads of the monitor which are still alive.
+	 *
+	 * @return the threads which have been quarantined
+	 */
+	public List<Thread> reclaim(ThreadCreationMonitor monitor) throws InterruptedException {
+		return reclaim(monitor.getCreatedThreads(), monitor, ReclamationPolicy.current(), ReclamationPolicy.currentGracePeriod());
+	}
+
+	/**
+	 * Interrupts the threads of the monitor which are still alive independent of the policy, e.g. for <br/>
+	 * {@link de.kdi.junit.runners.annotation.FailFast}.
+	 *
+	 * @return the threads which have been quarantined
+	 */
+	public List<Thread> interrupt(ThreadCreationMonitor monitor, long gracePeriod) throws InterruptedException {
+		return reclaim(monitor.getCreatedThreads(), monitor, ReclamationPolicy.INTERRUPT, gracePeriod);
+	}
+
+	List<Thread> reclaim(Collection<Thread> threads, ThreadCreationMonitor monitor, ReclamationPolicy policy, long gracePeriod)
+			throws InterruptedException {
+		List<Thread> result = new ArrayList<Thread>();
+		if (policy == ReclamationPolicy.NONE) {
+			return result;
+		}
+		List<Thread> aliveThreads = new ArrayList<Thread>();
+		for (Thread currentThread : threads) {
+			// like the ThreadShutdownWaiter: daemon threads may be pool workers of the jvm
+			if (currentThread.isAlive() && (!currentThread.isDaemon() || VirtualThreads.isVirtual(currentThread))) {
+				currentThread.interrupt();
+				aliveThreads.add(currentThread);
+			}
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(gracePeriod);
+		for (Thread currentThread : aliveThreads) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining > 0) {
+				TimeUnit.NANOSECONDS.timedJoin(currentThread, remaining);
+			}
+		}
+		for (Thread currentThread : aliveThreads) {
+			if (currentThread.isAlive()) {
+				result.add(currentThread);
+				System.err.println("[QUARANTINE] " + currentThread + " ignores its interruption and stays alive");
+				Throwable creationSite = monitor.getCreationSite(currentThread);
+				if (creationSite != null) {
+					creationSite.printStackTrace();
+				}
+			}
+		}
+		synchronized (quarantinedThreads) {
+			quarantinedThreads.addAll(result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of quarantined threads which are still alive
+	 */
+	public int getQuarantinedCount() {
+		synchronized (quarantinedThreads) {
+			for (int i = quarantinedThreads.size() - 1; i >= 0; i--) {
+				if (!quarantinedThreads.get(i).isAlive()) {
+					quarantinedThreads.remove(i);
+				}
+			}
+			return quarantinedThreads.size();
+		}
+	}
+
+}
@@ -0,0 +1,236 @@
+package de.kdi.junit.runners.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.runner.Description;
+
+import de.kdi.junit.runners.await.AwaitRecord;
+import de.kdi.junit.runners.leak.LeakReport;
+import de.kdi.junit.runners.stress.StressResult;
+
+/**
+ * Resources used by the asynchronous part of a single test method, measured by the <br/>
+ * {@link de.kdi.junit.runners.AsyncTestRunner}.<br/>
+ * <br/>
+ * The metrics of a test method are available before the runner reports its end, so a <br/>
+ * {@link org.junit.runner.notification.RunListener} can retrieve them by {@link #of(Description)} in <br/>
+ * <i>testFinished</i> or <i>testFailure</i>. If the system property {@link #REPORT_PROPERTY} is set, they <br/>
+ * are appended to the file it names as well, one json object per line.
+ */
+public final class AsyncTestMetrics {
+
+	/**
+	 * System property naming the file the metrics of all test methods are appended to.
+	 */
+	public static final String REPORT_PROPERTY = "de.kdi.junit.runners.metrics.report";
+
+	/**
+	 * Number of test methods whose metrics are retained, the oldest are dropped first.
+	 */
+	static final int MAX_RETAINED = 1024;
+
+	private static final Map<Description, AsyncTestMetrics> LATEST = Collections.synchronizedMap(new LinkedHashMap<Description, AsyncTestMetrics>() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Description, AsyncTestMetrics> eldest) {
+			return size() > MAX_RETAINED;
+		}
+	});
+
+	private final Description description;
+	private final int createdThreads;
+	private final int peakLiveThreads;
+	private final long cpuTimeNanos;
+	private final long allocatedBytes;
+	private final long invocationNanos;
+	private final long shutdownWaitNanos;
+	private final long overheadNanos;
+	private final StressResult stressResult;
+	private final List<AwaitRecord> awaits;
+
+	AsyncTestMetrics(Description description, int createdThreads, int peakLiveThreads, long cpuTimeNanos, long allocatedBytes,
+			long invocationNanos, long shutdownWaitNanos, long overheadNanos, StressResult stressResult) {
+		this(description, createdThreads, peakLiveThreads, cpuTimeNanos, allocatedBytes, invocationNanos, shutdownWaitNanos, overheadNanos,
+				stressResult, Collections.<AwaitRecord> emptyList());
+	}
+
+	AsyncTestMetrics(Description description, int createdThreads, int peakLiveThreads, long cpuTimeNanos, long allocatedBytes,
+			long invocationNanos, long shutdownWaitNanos, long overheadNanos, StressResult stressResult, List<AwaitRecord> awaits) {
+		this.description = description;
+		this.createdThreads = createdThreads;
+		this.peakLiveThreads = peakLiveThreads;
+		this.cpuTimeNanos = cpuTimeNanos;
+		this.allocatedBytes = allocatedBytes;
+		this.invocationNanos = invocationNanos;
+		this.shutdownWaitNanos = shutdownWaitNanos;
+		this.overheadNanos = overheadNanos;
+		this.stressResult = stressResult;
+		this.awaits = awaits;
+	}
+
+	/**
+	 * @return the metrics of the last run of the described test method or null, if unknown or <br/>
+	 *         more than {@link #MAX_RETAINED} test methods have finished since
+	 */
+	public static AsyncTestMetrics of(Description description) {
+		return LATEST.get(description);
+	}
+
+	static void publish(AsyncTestMetrics metrics) {
+		LATEST.put(metrics.description, metrics);
+		JsonMetricsReport.append(metrics.toJson());
+	}
+
+	/**
+	 * Appends the report of a test class which has left threads behind to the file named by {@link #REPORT_PROPERTY}.
+	 */
+	public static void publish(LeakReport leak) {
+		JsonMetricsReport.append(leak.toJson());
+	}
+
+	public Description getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return the number of threads created by the test method
+	 */
+	public int getCreatedThreads() {
+		return createdThreads;
+	}
+
+	/**
+	 * @return the highest number of created threads alive at the same time, as far as sampled
+	 */
+	public int getPeakLiveThreads() {
+		return peakLiveThreads;
+	}
+
+	/**
+	 * @return the sampled cpu time of the created threads or -1 if not supported by the jvm
+	 */
+	public long getCpuTimeNanos() {
+		return cpuTimeNanos;
+	}
+
+	/**
+	 * @return the sampled allocated bytes of the created threads or -1 if not supported by the jvm
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return the duration of the invocation of the test method itself
+	 */
+	public long getInvocationNanos() {
+		return invocationNanos;
+	}
+
+	/**
+	 * @return the time spent waiting for created threads, executors and futures
+	 */
+	public long getShutdownWaitNanos() {
+		return shutdownWaitNanos;
+	}
+
+	/**
+	 * @return the time spent by the runner for monitoring and evaluation
+	 */
+	public long getOverheadNanos() {
+		return overheadNanos;
+	}
+
+	/**
+	 * @return the statistics of the invocations of a test method annotated with
+	 *         {@link de.kdi.junit.runners.annotation.Repeat} or {@link de.kdi.junit.runners.annotation.Concurrent}, otherwise null
+	 */
+	public StressResult getStressResult() {
+		return stressResult;
+	}
+
+	/**
+	 * @return the awaits of the test method by {@link de.kdi.junit.runners.await.Await}, in the order of their end
+	 */
+	public List<AwaitRecord> getAwaits() {
+		return awaits;
+	}
+
+	/**
+	 * @return the total time spent in the awaits of the test method
+	 */
+	public long getAwaitNanos() {
+		long result = 0;
+		for (AwaitRecord currentAwait : awaits) {
+			result += currentAwait.getNanos();
+		}
+		return result;
+	}
+
+	/**
+	 * @return the metrics as single line json object
+	 */
+	public String toJson() {
+		StringBuilder result = new StringBuilder(256);
+		result.append("{\"class\":");
+		appendJsonString(result, description.getClassName());
+		result.append(",\"method\":");
+		appendJsonString(result, description.getMethodName());
+		result.append(",\"createdThreads\":").append(createdThreads);
+		result.append(",\"peakLiveThreads\":").append(peakLiveThreads);
+		result.append(",\"cpuTimeNanos\":").append(cpuTimeNanos);
+		result.append(",\"allocatedBytes\":").append(allocatedBytes);
+		result.append(",\"invocationNanos\":").append(invocationNanos);
+		result.append(",\"shutdownWaitNanos\":").append(shutdownWaitNanos);
+		result.append(",\"overheadNanos\":").append(overheadNanos);
+		if (stressResult != null) {
+			result.append(",\"stress\":").append(stressResult.toJson());
+		}
+		if (!awaits.isEmpty()) {
+			appendAwaits(result);
+		}
+		return result.append('}').toString();
+	}
+
+	private void appendAwaits(StringBuilder builder) {
+		builder.append(",\"awaits\":[");
+		for (int i = 0; i < awaits.size(); i++) {
+			AwaitRecord currentAwait = awaits.get(i);
+			builder.append(i == 0 ? "{\"awaited\":" : ",{\"awaited\":");
+			appendJsonString(builder, currentAwait.getAwaited());
+			builder.append(",\"nanos\":").append(currentAwait.getNanos());
+			builder.append(",\"reached\":").append(currentAwait.isReached()).append('}');
+		}
+		builder.append(']');
+	}
+
+	private static void appendJsonString(StringBuilder builder, String value) {
+		if (value == null) {
+			builder.append("null");
+			return;
+		}
+		builder.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char currentChar = value.charAt(i);
+			if (currentChar == '"' || currentChar == '\\') {
+				builder.append('\\').append(currentChar);
+			} else if (currentChar < 0x20) {
+				builder.append(String.format("\\u%04x", (int) currentChar));
+			} else {
+				builder.append(currentChar);
+			}
+		}
+		builder.append('"');
+	}
+
+	@Override
+	public String toString() {
+		return description.getDisplayName() + " " + toJson();
+	}
+
+}
@@ -0,0 +1,54 @@
+package de.kdi.junit.runners.metrics;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Appends {@link AsyncTestMetrics} and {@link de.kdi.junit.runners.leak.LeakReport}s as json lines to the file named by {@link AsyncTestMetrics#REPORT_PROPERTY}.<br/>
+ * The file is opened on the first append and flushed after every line, so the report is complete even <br/>
+ * if the jvm is terminated by the build tool.
+ */
+final class JsonMetricsReport {
+
+	private static String currentFileName;
+	private static Writer writer;
+
+	private JsonMetricsReport() {}
+
+	static synchronized void append(String jsonLine) {
+		String fileName = System.getProperty(AsyncTestMetrics.REPORT_PROPERTY);
+		if (fileName == null) {
+			return;
+		}
+		try {
+			if (!fileName.equals(currentFileName)) {
+				close();
+				currentFileName = fileName; // a failing file is not opened again
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName, true), "UTF-8"));
+			}
+			if (writer != null) {
+				writer.write(jsonLine);
+				writer.write('\n');
+				writer.flush();
+			}
+		} catch (IOException e) {
+			close();
+			e.printStackTrace();
+		}
+	}
+
+	private static void close() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			writer = null;
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package de.kdi.junit.runners.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.runner.Description;
+
+import de.kdi.junit.runners.await.AwaitRecord;
+import de.kdi.junit.runners.stress.StressResult;
+import de.kdi.junit.runners.thread.ThreadCreationMonitor;
+import de.kdi.junit.runners.thread.ThreadMonitoringService;
+import de.kdi.junit.runners.thread.ThreadResourceSampler;
+
+/**
+ * Measures the {@link AsyncTestMetrics} of a single test method run.<br/>
+ * The phases have to be marked in the order of the methods of this class.
+ */
+public class TestMetricsRecorder {
+
+	private final Description description;
+	private final ThreadCreationMonitor monitor;
+	private final ThreadResourceSampler sampler;
+	private long start;
+	private long invocationStart;
+	private long invocationNanos;
+	private long shutdownWaitStart;
+	private long shutdownWaitNanos;
+	private StressResult stressResult;
+	private List<AwaitRecord> awaits = Collections.emptyList();
+
+	public TestMetricsRecorder(Description description, ThreadCreationMonitor monitor) {
+		this.description = description;
+		this.monitor = monitor;
+		this.sampler = new ThreadResourceSampler(monitor);
+	}
+
+	public void start() {
+		start = System.nanoTime();
+		ThreadMonitoringService.getInstance().startSampling(sampler);
+	}
+
+	public void invocationStarted() {
+		invocationStart = System.nanoTime();
+	}
+
+	public void invocationFinished() {
+		invocationNanos = System.nanoTime() - invocationStart;
+	}
+
+	public void shutdownWaitStarted() {
+		sampler.sample(); // all created threads are known to the monitor now and most likely alive still
+		shutdownWaitStart = System.nanoTime();
+	}
+
+	public void shutdownWaitFinished() {
+		shutdownWaitNanos = System.nanoTime() - shutdownWaitStart;
+	}
+
+	public void setStressResult(StressResult stressResult) {
+		this.stressResult = stressResult;
+	}
+
+	public void setAwaits(List<AwaitRecord> awaits) {
+		this.awaits = awaits;
+	}
+
+	/**
+	 * Takes the final sample and publishes the metrics, see {@link AsyncTestMetrics#of(Description)}.
+	 */
+	public AsyncTestMetrics finish() {
+		ThreadMonitoringService.getInstance().stopSampling(sampler);
+		long overheadNanos = System.nanoTime() - start - invocationNanos - shutdownWaitNanos;
+		AsyncTestMetrics result = new AsyncTestMetrics(description, monitor.getCreatedThreads().size(), sampler.getPeakLiveThreads(),
+				sampler.getCpuTimeNanos(), sampler.getAllocatedBytes(), invocationNanos, shutdownWaitNanos, overheadNanos, stressResult,
+				awaits);
+		AsyncTestMetrics.publish(result);
+		return result;
+	}
+
+}
@@ -0,0 +1,204 @@
+package de.kdi.junit.runners.model;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.kdi.junit.runners.annotation.ParallelExecution;
+
+/**
+ * Immutable metadata of a test class: the sorted test methods and the handles of the methods annotated <br/>
+ * with {@link Before}, {@link After}, {@link BeforeClass} and {@link AfterClass}.<br/>
+ * <br/>
+ * The reflection is done once per class, see {@link #of(Class)}. Every runner instance, filter and sort <br/>
+ * pass of the same class shares the model afterwards.
+ */
+public final class TestClassModel {
+
+	/**
+	 * Timeout in milliseconds for test methods without {@link de.kdi.junit.runners.annotation.ThreadShutdownTimeout}.
+	 */
+	public static final int DEFAULT_SHUTDOWN_TIMEOUT = 3000;
+
+	private static final MethodType INSTANCE_INVOKER_TYPE = MethodType.methodType(void.class, Object.class);
+	private static final MethodType STATIC_INVOKER_TYPE = MethodType.methodType(void.class);
+
+	private static final ClassValue<TestClassModel> MODELS = new ClassValue<TestClassModel>() {
+
+		@Override
+		protected TestClassModel computeValue(Class<?> type) {
+			return new TestClassModel(type);
+		}
+	};
+
+	private final Class<?> testClass;
+	private final Annotation[] annotations;
+	private final ParallelExecution parallelExecution;
+	private final List<TestMethodModel> testMethods;
+	private MethodHandle before;
+	private MethodHandle after;
+	private MethodHandle beforeClass;
+	private MethodHandle afterClass;
+
+	private TestClassModel(Class<?> testClass) {
+		this.testClass = testClass;
+		this.annotations = testClass.getAnnotations();
+		this.parallelExecution = testClass.getAnnotation(ParallelExecution.class);
+		List<TestMethodModel> methods = createTestMethodsByReflection();
+		Collections.sort(methods, TestMethodModel.NAME_ORDER);
+		this.testMethods = Collections.unmodifiableList(methods);
+	}
+
+	private List<TestMethodModel> createTestMethodsByReflection() {
+		List<TestMethodModel> methods = new ArrayList<TestMethodModel>();
+		for (Method currentMethod : testClass.getDeclaredMethods()) {
+			int modifiers = currentMethod.getModifiers();
+			boolean isWellformedTestMethod = currentMethod.getParameterTypes().length == 0 && !Modifier.isStatic(modifiers)
+					&& Modifier.isPublic(modifiers) && !Modifier.isAbstract(modifiers);
+			if (isWellformedTestMethod) {
+				if (isTestMethod(currentMethod)) {
+					if (currentMethod.getAnnotation(Ignore.class) == null) {
+						methods.add(new TestMethodModel(testClass, currentMethod, unreflect(currentMethod)));
+					}
+				} else {
+					retrieveMethodWithAnnotation(currentMethod);
+				}
+			} else if (Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers)) {
+				retrieveMethodWithStaticAnnotation(currentMethod);
+			}
+		}
+		return methods;
+	}
+
+	/**
+	 * @return the cached model of the given class, created on the first call
+	 */
+	public static TestClassModel of(Class<?> testClass) {
+		return MODELS.get(testClass);
+	}
+
+	private static boolean isTestMethod(Method method) {
+		return method.getName().toUpperCase().startsWith("TEST") || method.getAnnotation(Test.class) != null;
+	}
+
+	private void retrieveMethodWithAnnotation(Method currentMethod) {
+		if (currentMethod.getAnnotation(Before.class) != null) {
+			before = unreflect(currentMethod);
+		}
+		if (currentMethod.getAnnotation(After.class) != null) {
+			after = unreflect(currentMethod);
+		}
+	}
+
+	private void retrieveMethodWithStaticAnnotation(Method currentMethod) {
+		if (currentMethod.getAnnotation(BeforeClass.class) != null) {
+			beforeClass = unreflect(currentMethod);
+		}
+		if (currentMethod.getAnnotation(AfterClass.class) != null) {
+			afterClass = unreflect(currentMethod);
+		}
+	}
+
+	/**
+	 * Resolves a handle of the type <i>(Object)void</i>, static methods ignore their argument.
+	 */
+	private static MethodHandle unreflect(Method method) {
+		try {
+			method.setAccessible(true); // public methods of non public test classes
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) {
+				return MethodHandles.dropArguments(handle.asType(STATIC_INVOKER_TYPE), 0, Object.class);
+			}
+			return handle.asType(INSTANCE_INVOKER_TYPE);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("method " + method + " is not accessible", e);
+		}
+	}
+
+	static void invoke(MethodHandle handle, Object testClassInstance) throws InvocationTargetException {
+		try {
+			handle.invokeExact(testClassInstance);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * @throws InvocationTargetException wrapping the exception of the default constructor or its absence
+	 */
+	public Object newInstance() throws InvocationTargetException {
+		try {
+			return testClass.getDeclaredConstructor().newInstance();
+		} catch (InvocationTargetException e) { // wrapping the exception of the constructor already
+			throw e;
+		} catch (NoSuchMethodException e) { // like Class.newInstance()
+			throw new InvocationTargetException(new InstantiationException(testClass.getName()).initCause(e));
+		} catch (Exception e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	public void invokeBefore(Object testClassInstance) throws InvocationTargetException {
+		if (before != null) {
+			invoke(before, testClassInstance);
+		}
+	}
+
+	public void invokeAfter(Object testClassInstance) throws InvocationTargetException {
+		if (after != null) {
+			invoke(after, testClassInstance);
+		}
+	}
+
+	public void invokeBeforeClass() throws InvocationTargetException {
+		if (beforeClass != null) {
+			invoke(beforeClass, null);
+		}
+	}
+
+	public void invokeAfterClass() throws InvocationTargetException {
+		if (afterClass != null) {
+			invoke(afterClass, null);
+		}
+	}
+
+	public Class<?> getTestClass() {
+		return testClass;
+	}
+
+	/**
+	 * @return the annotations of the test class, the array must not be modified
+	 */
+	public Annotation[] getAnnotations() {
+		return annotations;
+	}
+
+	/**
+	 * @return the annotation of the test class or null
+	 */
+	public ParallelExecution getParallelExecution() {
+		return parallelExecution;
+	}
+
+	/**
+	 * @return the test methods which are not ignored, ascending by name
+	 */
+	public List<TestMethodModel> getTestMethods() {
+		return testMethods;
+	}
+
+}
@@ -0,0 +1,175 @@
+package de.kdi.junit.runners.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+
+import de.kdi.junit.runners.annotation.Concurrent;
+import de.kdi.junit.runners.annotation.FailFast;
+import de.kdi.junit.runners.annotation.Repeat;
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+import de.kdi.junit.runners.annotation.VirtualTime;
+
+/**
+ * Immutable metadata of a single test method, resolved once by its {@link TestClassModel}.<br/>
+ * The method is invoked through a pre-resolved {@link MethodHandle}, the annotations are <br/>
+ * not read again after the construction.
+ */
+public final class TestMethodModel {
+
+	/**
+	 * Orders test methods ascending by their names.
+	 */
+	public static final Comparator<TestMethodModel> NAME_ORDER = new Comparator<TestMethodModel>() {
+
+		@Override
+		public int compare(TestMethodModel model1, TestMethodModel model2) {
+			return model1.name.compareTo(model2.name);
+		}
+	};
+
+	private final Method method;
+	private final String name;
+	private final MethodHandle invoker;
+	private final Description description;
+	private final int shutdownTimeout;
+	private final Class<? extends Throwable> expectedException;
+	private final long timeout;
+	private final boolean stressed;
+	private final int repetitions;
+	private final int concurrency;
+	private final boolean startBarrier;
+	private final boolean newInstancePerInvocation;
+	private final boolean virtualTime;
+	private final int failFastGracePeriod;
+
+	TestMethodModel(Class<?> testClass, Method method, MethodHandle invoker) {
+		this.method = method;
+		this.name = method.getName();
+		this.invoker = invoker;
+		this.description = Description.createTestDescription(testClass, name, method.getAnnotations());
+		ThreadShutdownTimeout shutdownTimeout = method.getAnnotation(ThreadShutdownTimeout.class);
+		this.shutdownTimeout = shutdownTimeout == null ? TestClassModel.DEFAULT_SHUTDOWN_TIMEOUT : shutdownTimeout.value();
+		Test test = method.getAnnotation(Test.class);
+		this.expectedException = test == null || test.expected() == Test.None.class ? null : test.expected();
+		this.timeout = test == null ? 0 : test.timeout();
+		Repeat repeat = method.getAnnotation(Repeat.class);
+		Concurrent concurrent = method.getAnnotation(Concurrent.class);
+		this.stressed = repeat != null || concurrent != null;
+		int threads = concurrent == null ? 1 : concurrent.value();
+		this.concurrency = threads < 1 ? Runtime.getRuntime().availableProcessors() : threads;
+		this.repetitions = repeat == null ? concurrency : Math.max(1, repeat.value()); // one invocation per thread by default
+		this.newInstancePerInvocation = repeat != null && repeat.newInstance();
+		this.startBarrier = concurrent != null && concurrent.startBarrier();
+		this.virtualTime = method.isAnnotationPresent(VirtualTime.class) || testClass.isAnnotationPresent(VirtualTime.class);
+		FailFast failFast = method.isAnnotationPresent(FailFast.class) ? method.getAnnotation(FailFast.class) : testClass
+				.getAnnotation(FailFast.class);
+		this.failFastGracePeriod = failFast == null ? -1 : failFast.gracePeriod();
+	}
+
+	/**
+	 * Invokes the test method on the given instance.
+	 *
+	 * @throws InvocationTargetException wrapping everything thrown by the test method
+	 */
+	public void invoke(Object testClassInstance) throws InvocationTargetException {
+		TestClassModel.invoke(invoker, testClassInstance);
+	}
+
+	/**
+	 * @return true when the test method declares the given throwable as expected by {@link Test#expected()}
+	 */
+	public boolean isExpected(Throwable throwable) {
+		return expectedException != null && expectedException.isInstance(throwable);
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Description getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return the value of the {@link ThreadShutdownTimeout} or {@link TestClassModel#DEFAULT_SHUTDOWN_TIMEOUT}
+	 */
+	public int getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public Class<? extends Throwable> getExpectedException() {
+		return expectedException;
+	}
+
+	/**
+	 * @return the timeout of a single invocation in milliseconds given by {@link Test#timeout()}, 0 if none
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @return true when the test method is annotated with {@link Repeat} or {@link Concurrent}
+	 */
+	public boolean isStressed() {
+		return stressed;
+	}
+
+	/**
+	 * @return the total number of invocations, see {@link Repeat#value()}, one per thread without {@link Repeat}
+	 */
+	public int getRepetitions() {
+		return repetitions;
+	}
+
+	/**
+	 * @return the number of threads invoking the test method, see {@link Concurrent#value()}
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public boolean isStartBarrier() {
+		return startBarrier;
+	}
+
+	public boolean isNewInstancePerInvocation() {
+		return newInstancePerInvocation;
+	}
+
+	/**
+	 * @return true when the test method or its class is annotated with {@link VirtualTime}
+	 */
+	public boolean isVirtualTime() {
+		return virtualTime;
+	}
+
+	/**
+	 * @return true when the test method or its class is annotated with {@link FailFast}
+	 */
+	public boolean isFailFast() {
+		return failFastGracePeriod >= 0;
+	}
+
+	/**
+	 * @return the grace period in milliseconds of the {@link FailFast} annotation
+	 */
+	public int getFailFastGracePeriod() {
+		return failFastGracePeriod;
+	}
+
+	@Override
+	public String toString() {
+		return description.getDisplayName();
+	}
+
+}
@@ -0,0 +1,143 @@
+package de.kdi.junit.runners.quiescence;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+import de.kdi.junit.runners.thread.ExceptionRecorder;
+
+/**
+ * Decorator counting the tasks in flight and recording the exceptions of all tasks, including the ones
+ * stored in futures.
+ */
+class MonitoredExecutorService extends AbstractExecutorService {
+
+	private final ExecutorService delegate;
+	private final ExceptionRecorder recorder;
+	private final Object idleSignal = new Object();
+	private int tasksInFlight;
+
+	MonitoredExecutorService(ExecutorService delegate, ExceptionRecorder recorder) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+	@Override
+	public void execute(final Runnable command) {
+		synchronized (idleSignal) {
+			tasksInFlight++;
+		}
+		try {
+			delegate.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						command.run();
+					} catch (RuntimeException e) {
+						recorder.record(Thread.currentThread(), e);
+						throw e;
+					} catch (Error e) {
+						recorder.record(Thread.currentThread(), e);
+						throw e;
+					} finally {
+						taskFinished();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			taskFinished();
+			throw e;
+		}
+	}
+
+	private void taskFinished() {
+		synchronized (idleSignal) {
+			if (--tasksInFlight == 0) {
+				idleSignal.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * @return true, if there is no task in flight anymore
+	 */
+	boolean awaitIdle(long timeoutNanos) throws InterruptedException {
+		long deadline = System.nanoTime() + timeoutNanos;
+		synchronized (idleSignal) {
+			while (tasksInFlight > 0) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(idleSignal, remaining);
+			}
+			return true;
+		}
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		return new RecordingFutureTask<T>(callable);
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		return new RecordingFutureTask<T>(runnable, value);
+	}
+
+	/**
+	 * Records its failure itself, so it must not be recorded again when awaited.
+	 */
+	class RecordingFutureTask<T> extends FutureTask<T> {
+
+		RecordingFutureTask(Callable<T> callable) {
+			super(callable);
+		}
+
+		RecordingFutureTask(Runnable runnable, T value) {
+			super(runnable, value);
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			recorder.record(Thread.currentThread(), t);
+			super.setException(t);
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+
+	@Override
+	public String toString() {
+		return "monitored " + delegate;
+	}
+}
@@ -0,0 +1,57 @@
+package de.kdi.junit.runners.quiescence;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Registers executors and futures of a test method, which the
+ * {@link de.kdi.junit.runners.AsyncTestRunner} has to wait for after the invocation.<br/>
+ * The waiting shares the budget of the {@link de.kdi.junit.runners.annotation.ThreadShutdownTimeout}
+ * with the waiting for created threads. Failed futures are reported like uncaught exceptions.<br/>
+ * <br/>
+ * Executors and futures stored in instance fields of the test class are registered automatically. <br/>
+ * Calls outside of a test method run by the runner have no effect.
+ */
+public final class Quiescence {
+
+	private Quiescence() {}
+
+	/**
+	 * Waits until the executor has neither running nor queued tasks. Supported are {@link java.util.concurrent.ForkJoinPool}s,
+	 * {@link java.util.concurrent.ThreadPoolExecutor}s and executors created by {@link #monitor(ExecutorService)}.
+	 */
+	public static <T extends ExecutorService> T register(T executor) {
+		QuiescenceMonitor current = QuiescenceMonitor.current();
+		if (current != null) {
+			current.register(executor);
+		}
+		return executor;
+	}
+
+	/**
+	 * Waits for the completion of the future and reports its failure.
+	 */
+	public static <T extends Future<?>> T register(T future) {
+		QuiescenceMonitor current = QuiescenceMonitor.current();
+		if (current != null) {
+			current.register(future);
+		}
+		return future;
+	}
+
+	/**
+	 * Wraps the executor, so that every exception of a task is reported, even if it would be
+	 * swallowed by the future, and the end of the last task is signaled without polling.
+	 *
+	 * @return the registered wrapper or the executor itself, when called outside of a test method
+	 */
+	public static ExecutorService monitor(ExecutorService executor) {
+		QuiescenceMonitor current = QuiescenceMonitor.current();
+		if (current == null) {
+			return executor;
+		}
+		MonitoredExecutorService result = new MonitoredExecutorService(executor, current.getExceptionRecorder());
+		current.register(result);
+		return result;
+	}
+}
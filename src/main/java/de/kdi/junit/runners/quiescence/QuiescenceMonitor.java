@@ -0,0 +1,210 @@
+package de.kdi.junit.runners.quiescence;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+import de.kdi.junit.runners.thread.ExceptionRecorder;
+import de.kdi.junit.runners.thread.ThreadShutdownWaiter;
+
+/**
+ * Executors and futures of a single test method, which have to be quiescent before the test is finished.<br/>
+ * The monitor is bound to the test thread and the threads created by it as {@link InheritableThreadLocal}, <br/>
+ * so {@link Quiescence} can find it.<br/>
+ * <br/>
+ * Idleness is detected per type:
+ * <ul>
+ * <li>executors created by {@link Quiescence#monitor(ExecutorService)} signal the end of their last task</li>
+ * <li>{@link ForkJoinPool}s are awaited by {@link ForkJoinPool#awaitQuiescence(long, TimeUnit)}</li>
+ * <li>{@link ThreadPoolExecutor}s are polled with a backoff from {@link #MIN_POLL_INTERVAL_NANOS} to
+ * {@link #MAX_POLL_INTERVAL_NANOS} until no task is running or due</li>
+ * <li>futures are awaited by {@link Future#get(long, TimeUnit)}</li>
+ * </ul>
+ * Other executors are ignored. The remaining time of a waiter measuring a virtual clock is no real time, <br/>
+ * so they are checked without blocking in between short {@link ThreadShutdownWaiter#pause(long)}s instead.
+ */
+public class QuiescenceMonitor {
+
+	static final long MIN_POLL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	static final long MAX_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private static final InheritableThreadLocal<QuiescenceMonitor> CURRENT = new InheritableThreadLocal<QuiescenceMonitor>();
+
+	private final ExceptionRecorder recorder;
+	private final List<Object> registered = new CopyOnWriteArrayList<Object>();
+
+	/**
+	 * @param recorder receives the failures of futures and monitored executors
+	 * @param includeCommonPool true, to wait for the quiescence of {@link ForkJoinPool#commonPool()} as well
+	 */
+	public QuiescenceMonitor(ExceptionRecorder recorder, boolean includeCommonPool) {
+		this.recorder = recorder;
+		if (includeCommonPool) {
+			registered.add(ForkJoinPool.commonPool());
+		}
+	}
+
+	static QuiescenceMonitor current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds this monitor to the calling thread.
+	 */
+	public void open() {
+		CURRENT.set(this);
+	}
+
+	public void close() {
+		CURRENT.remove();
+	}
+
+	void register(Object executorOrFuture) {
+		if (!containsIdentical(executorOrFuture)) {
+			registered.add(executorOrFuture);
+		}
+	}
+
+	private boolean containsIdentical(Object executorOrFuture) {
+		for (Object currentRegistered : registered) {
+			if (currentRegistered == executorOrFuture) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	ExceptionRecorder getExceptionRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Registers the executors and futures stored in the instance fields of the test class instance.
+	 */
+	public void registerFields(Object testClassInstance) {
+		for (Class<?> currentClass = testClassInstance.getClass(); currentClass != Object.class; currentClass = currentClass.getSuperclass()) {
+			for (Field currentField : currentClass.getDeclaredFields()) {
+				boolean isCandidate = !Modifier.isStatic(currentField.getModifiers())
+						&& (ExecutorService.class.isAssignableFrom(currentField.getType()) || Future.class.isAssignableFrom(currentField.getType()));
+				if (isCandidate) {
+					registerFieldValue(testClassInstance, currentField);
+				}
+			}
+		}
+	}
+
+	private void registerFieldValue(Object testClassInstance, Field field) {
+		try {
+			field.setAccessible(true);
+			Object value = field.get(testClassInstance);
+			if (value != null) {
+				register(value);
+			}
+		} catch (Exception e) {
+			System.err.println("[WARN] Can't access " + field + ": " + e);
+		}
+	}
+
+	/**
+	 * Waits until all registered executors and futures are quiescent, at most until the deadline of the waiter.
+	 *
+	 * @return the executors and futures which are still busy
+	 */
+	public List<Object> awaitQuiescence(ThreadShutdownWaiter waiter) throws InterruptedException {
+		List<Object> result = new ArrayList<Object>();
+		for (Object currentRegistered : registered) {
+			if (!awaitQuiescence(currentRegistered, waiter)) {
+				result.add(currentRegistered);
+			}
+		}
+		return result;
+	}
+
+	private boolean awaitQuiescence(Object executorOrFuture, ThreadShutdownWaiter waiter) throws InterruptedException {
+		if (!waiter.isVirtual()) {
+			return awaitQuiescence(executorOrFuture, Math.max(0, waiter.getRemainingNanos()));
+		}
+		long pollInterval = MIN_POLL_INTERVAL_NANOS;
+		while (!awaitQuiescence(executorOrFuture, 0)) {
+			if (waiter.getRemainingNanos() <= 0) {
+				return false;
+			}
+			waiter.pause(pollInterval);
+			pollInterval = Math.min(pollInterval << 1, MAX_POLL_INTERVAL_NANOS);
+		}
+		return true;
+	}
+
+	private boolean awaitQuiescence(Object executorOrFuture, long timeoutNanos) throws InterruptedException {
+		if (executorOrFuture instanceof Future) {
+			return awaitFuture((Future<?>) executorOrFuture, timeoutNanos);
+		} else if (executorOrFuture instanceof MonitoredExecutorService) {
+			return ((MonitoredExecutorService) executorOrFuture).awaitIdle(timeoutNanos);
+		} else if (executorOrFuture instanceof ForkJoinPool) {
+			return ((ForkJoinPool) executorOrFuture).awaitQuiescence(timeoutNanos, TimeUnit.NANOSECONDS);
+		} else if (executorOrFuture instanceof ThreadPoolExecutor) {
+			return awaitIdle((ThreadPoolExecutor) executorOrFuture, timeoutNanos);
+		}
+		return true;
+	}
+
+	private boolean awaitFuture(Future<?> future, long timeoutNanos) throws InterruptedException {
+		try {
+			future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			if (!(future instanceof MonitoredExecutorService.RecordingFutureTask)) { // recorded by its executor already
+				recorder.record(-1, "future " + future, e.getCause());
+			}
+		} catch (CancellationException e) {
+			// cancelled by the test
+		} catch (TimeoutException e) {
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean awaitIdle(ThreadPoolExecutor executor, long timeoutNanos) {
+		long deadline = System.nanoTime() + timeoutNanos;
+		long pollInterval = MIN_POLL_INTERVAL_NANOS;
+		while (!isIdle(executor)) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return false;
+			}
+			LockSupport.parkNanos(executor, Math.min(pollInterval, remaining));
+			pollInterval = Math.min(pollInterval << 1, MAX_POLL_INTERVAL_NANOS);
+		}
+		return true;
+	}
+
+	/**
+	 * A scheduled executor is idle, if no task is running and no task is due.
+	 */
+	private static boolean isIdle(ThreadPoolExecutor executor) {
+		if (executor.getActiveCount() > 0) {
+			return false;
+		}
+		if (executor instanceof ScheduledThreadPoolExecutor) {
+			for (Runnable currentTask : executor.getQueue()) {
+				if (((Delayed) currentTask).getDelay(TimeUnit.NANOSECONDS) <= 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return executor.getQueue().isEmpty();
+	}
+}
@@ -0,0 +1,87 @@
+package de.kdi.junit.runners.stress;
+
+/**
+ * Histogram of latencies in nanoseconds with a relative precision of about 3 percent.<br/>
+ * Values below 64 have buckets of their own, larger values are split into 32 sub buckets per <br/>
+ * power of two. Recording is a few arithmetic operations without allocation, so every invocation <br/>
+ * of a stress test can be recorded. Instances are not thread safe, every thread records into <br/>
+ * its own histogram and the histograms are merged afterwards.
+ */
+class LatencyHistogram {
+
+	private static final int LINEAR_BUCKETS = 64;
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_EXPONENT = 6; // 2^6 == LINEAR_BUCKETS
+
+	private final long[] counts = new long[LINEAR_BUCKETS + (63 - LINEAR_EXPONENT) * SUB_BUCKETS];
+	private long count;
+	private long max;
+
+	void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts[indexOf(value)]++;
+		count++;
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	void merge(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		max = Math.max(max, other.max);
+	}
+
+	static int indexOf(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR_BUCKETS + (exponent - LINEAR_EXPONENT) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * @return the largest value falling into the bucket with the given index
+	 */
+	static long highestValueOf(int index) {
+		if (index < LINEAR_BUCKETS) {
+			return index;
+		}
+		int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_EXPONENT;
+		long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+		int shift = exponent - SUB_BUCKET_BITS;
+		return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+	}
+
+	long getCount() {
+		return count;
+	}
+
+	long getMax() {
+		return max;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the upper bound of the bucket the percentile falls into, never more than the maximum
+	 */
+	long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+}
@@ -0,0 +1,136 @@
+package de.kdi.junit.runners.stress;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import de.kdi.junit.runners.model.TestClassModel;
+import de.kdi.junit.runners.model.TestMethodModel;
+import de.kdi.junit.runners.thread.ExceptionRecorder;
+import de.kdi.junit.runners.timeout.TimeoutWatchdog;
+import de.kdi.junit.runners.timeout.TimeoutWatchdog.Timeout;
+
+/**
+ * Invokes a test method annotated with {@link de.kdi.junit.runners.annotation.Repeat} or <br/>
+ * {@link de.kdi.junit.runners.annotation.Concurrent} repeatedly by several threads.<br/>
+ * <br/>
+ * The invocation with the index <i>i</i> is performed by the thread <i>i modulo threads</i> in the round <br/>
+ * <i>i / threads</i>. With a start barrier all threads wait for each other at the beginning of every round, <br/>
+ * also the threads which have no invocation left in the last round. Unexpected exceptions of the <br/>
+ * invocations are counted and passed to the {@link ExceptionRecorder} of the test method, which stores <br/>
+ * only a bounded number of them. A <i>&#064;Test(timeout)</i> applies to every single invocation.
+ */
+public class StressExecution {
+
+	private final TestClassModel classModel;
+	private final TestMethodModel method;
+	private final ExceptionRecorder recorder;
+	private final int threads;
+	private final int repetitions;
+	private final int rounds;
+	private final CyclicBarrier barrier;
+
+	public StressExecution(TestClassModel classModel, TestMethodModel method, ExceptionRecorder recorder) {
+		this.classModel = classModel;
+		this.method = method;
+		this.recorder = recorder;
+		this.threads = method.getConcurrency();
+		this.repetitions = method.getRepetitions();
+		this.rounds = (repetitions + threads - 1) / threads;
+		this.barrier = method.isStartBarrier() && threads > 1 ? new CyclicBarrier(threads) : null;
+	}
+
+	/**
+	 * Performs all invocations and returns after the last one has finished.
+	 *
+	 * @param testClassInstance the instance used by all invocations, unless a new instance is requested per invocation
+	 */
+	public StressResult run(Object testClassInstance) throws InterruptedException {
+		Worker[] workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(i, testClassInstance);
+		}
+		long start = System.nanoTime();
+		if (threads == 1) {
+			workers[0].run();
+		} else {
+			Thread[] workerThreads = new Thread[threads];
+			for (int i = 0; i < threads; i++) {
+				workerThreads[i] = new Thread(workers[i], method.getName() + "-stress-" + i);
+				workerThreads[i].start();
+			}
+			for (Thread currentThread : workerThreads) {
+				currentThread.join();
+			}
+		}
+		long duration = System.nanoTime() - start;
+		LatencyHistogram latencies = new LatencyHistogram();
+		long failures = 0;
+		for (Worker currentWorker : workers) {
+			latencies.merge(currentWorker.latencies);
+			failures += currentWorker.failures;
+		}
+		return new StressResult(threads, failures, duration, latencies);
+	}
+
+	private class Worker implements Runnable {
+
+		private final int index;
+		private final Object testClassInstance;
+		private final LatencyHistogram latencies = new LatencyHistogram();
+		private long failures;
+
+		Worker(int index, Object testClassInstance) {
+			this.index = index;
+			this.testClassInstance = testClassInstance;
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int round = 0; round < rounds; round++) {
+					if (barrier != null) {
+						barrier.await();
+					}
+					if ((long) round * threads + index < repetitions) {
+						invoke();
+					}
+				}
+			} catch (InterruptedException e) {
+				recorder.record(Thread.currentThread(), e);
+			} catch (BrokenBarrierException e) {
+				recorder.record(Thread.currentThread(), e);
+			}
+		}
+
+		private void invoke() {
+			long start = System.nanoTime();
+			Timeout timeout = method.getTimeout() > 0 ? TimeoutWatchdog.getInstance().schedule(Thread.currentThread(), method.getTimeout()) : null;
+			try {
+				if (method.isNewInstancePerInvocation()) {
+					Object instance = classModel.newInstance();
+					try {
+						classModel.invokeBefore(instance);
+						method.invoke(instance);
+					} finally {
+						classModel.invokeAfter(instance);
+					}
+				} else {
+					method.invoke(testClassInstance);
+				}
+			} catch (InvocationTargetException e) {
+				Throwable targetException = e.getTargetException();
+				if (!method.isExpected(targetException) && (timeout == null || timeout.cancel())) {
+					failures++;
+					recorder.record(Thread.currentThread(), targetException);
+				}
+			}
+			if (timeout != null && !timeout.cancel()) {
+				failures++;
+				recorder.record(Thread.currentThread(), timeout.newException());
+			}
+			latencies.record(System.nanoTime() - start);
+		}
+	}
+
+}
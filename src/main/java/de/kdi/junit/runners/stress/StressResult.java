@@ -0,0 +1,97 @@
+package de.kdi.junit.runners.stress;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of a test method executed by a {@link StressExecution}.
+ */
+public final class StressResult {
+
+	private final int threads;
+	private final long invocations;
+	private final long failures;
+	private final long durationNanos;
+	private final long p50Nanos;
+	private final long p90Nanos;
+	private final long p99Nanos;
+	private final long p999Nanos;
+	private final long maxNanos;
+
+	StressResult(int threads, long failures, long durationNanos, LatencyHistogram latencies) {
+		this.threads = threads;
+		this.invocations = latencies.getCount();
+		this.failures = failures;
+		this.durationNanos = durationNanos;
+		this.p50Nanos = latencies.getValueAtPercentile(50);
+		this.p90Nanos = latencies.getValueAtPercentile(90);
+		this.p99Nanos = latencies.getValueAtPercentile(99);
+		this.p999Nanos = latencies.getValueAtPercentile(99.9);
+		this.maxNanos = latencies.getMax();
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getInvocations() {
+		return invocations;
+	}
+
+	/**
+	 * @return the number of invocations which have thrown an unexpected exception
+	 */
+	public long getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @return the wall clock time of all invocations
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * @return the invocations per second
+	 */
+	public double getThroughput() {
+		return durationNanos == 0 ? 0 : invocations * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+	}
+
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+	public long getP90Nanos() {
+		return p90Nanos;
+	}
+
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+	public long getP999Nanos() {
+		return p999Nanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * @return the statistics as json object
+	 */
+	public String toJson() {
+		return "{\"threads\":" + threads + ",\"invocations\":" + invocations + ",\"failures\":" + failures + ",\"durationNanos\":"
+				+ durationNanos + ",\"throughput\":" + Math.round(getThroughput()) + ",\"p50Nanos\":" + p50Nanos + ",\"p90Nanos\":"
+				+ p90Nanos + ",\"p99Nanos\":" + p99Nanos + ",\"p999Nanos\":" + p999Nanos + ",\"maxNanos\":" + maxNanos + "}";
+	}
+
+	@Override
+	public String toString() {
+		return invocations + " invocations on " + threads + " threads, " + failures + " failed, " + Math.round(getThroughput())
+				+ " ops/s, latency p50 " + p50Nanos + "ns, p90 " + p90Nanos + "ns, p99 " + p99Nanos + "ns, p99.9 " + p999Nanos
+				+ "ns, max " + maxNanos + "ns";
+	}
+
+}
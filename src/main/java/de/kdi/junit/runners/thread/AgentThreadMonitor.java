@@ -0,0 +1,145 @@
+package de.kdi.junit.runners.thread;
+
+import gnu.trove.set.hash.THashSet;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import de.kdi.junit.runners.agent.ThreadCreationAgent;
+import de.kdi.junit.runners.agent.ThreadCreationHooks;
+import de.kdi.junit.runners.agent.ThreadCreationListener;
+
+/**
+ * Exact {@link ThreadCreationMonitor} based on the {@link ThreadCreationHooks} of the {@link ThreadCreationAgent}.<br/>
+ * A thread is attributed to the monitor when it is created or started by the thread which has started <br/>
+ * the monitoring or by a thread already attributed. No polling thread is needed and even threads <br/>
+ * finishing immediately are recorded together with their creation site. Uncaught exceptions are <br/>
+ * only recorded for attributed threads, all others are passed on by the {@link UncaughtExceptionDispatcher}.<br/>
+ * <br/>
+ * Virtual threads are attributed as well, but without creation site to keep their creation cheap. <br/>
+ * Terminated threads are pruned whenever the number of created threads has doubled, so the memory <br/>
+ * stays proportional to the number of live threads even for hundreds of thousands of virtual threads.
+ */
+public class AgentThreadMonitor implements ThreadCreationMonitor, UncaughtExceptionDispatcher.Receiver {
+
+	private static final int MIN_PRUNE_THRESHOLD = 1024;
+	private static final List<AgentThreadMonitor> ACTIVE_MONITORS = new CopyOnWriteArrayList<AgentThreadMonitor>();
+	private static final ThreadCreationListener DISPATCHER = new ThreadCreationListener() {
+
+		@Override
+		public void threadCreated(Thread thread, Thread parent) {
+			for (AgentThreadMonitor currentMonitor : ACTIVE_MONITORS) {
+				currentMonitor.attribute(thread, parent);
+			}
+		}
+
+		@Override
+		public void threadStarted(Thread thread, Thread starter) {
+			for (AgentThreadMonitor currentMonitor : ACTIVE_MONITORS) {
+				currentMonitor.attribute(thread, starter);
+			}
+		}
+	};
+
+	private final Set<Thread> trackedThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+	private final Map<Thread, Throwable> creationSites = new ConcurrentHashMap<Thread, Throwable>();
+	private final Set<Thread> createdThreads = new THashSet<Thread>();
+	private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+	private final MappingUncaughtExceptionHandler exeptionHandler = new MappingUncaughtExceptionHandler();
+
+	@Override
+	public void startMonitoring() {
+		trackedThreads.add(Thread.currentThread());
+		UncaughtExceptionDispatcher.register(this);
+		ThreadCreationHooks.setListener(DISPATCHER);
+		ACTIVE_MONITORS.add(this);
+	}
+
+	/**
+	 * Stops the attribution of new threads. The uncaught exceptions of the threads still alive are recorded <br/>
+	 * until a later call of this method finds all of them terminated.
+	 */
+	@Override
+	public void stopMonitoring() {
+		ACTIVE_MONITORS.remove(this);
+		UncaughtExceptionDispatcher.prune();
+	}
+
+	@Override
+	public boolean isAttributed(Thread thread) {
+		return trackedThreads.contains(thread);
+	}
+
+	@Override
+	public boolean isCatchingUnattributed() {
+		return false;
+	}
+
+	@Override
+	public boolean isReceiving() {
+		if (ACTIVE_MONITORS.contains(this)) {
+			return true;
+		}
+		synchronized (createdThreads) {
+			for (Thread currentThread : createdThreads) {
+				if (currentThread.isAlive()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private void attribute(Thread thread, Thread parent) {
+		if (trackedThreads.contains(parent) && trackedThreads.add(thread)) {
+			if (!VirtualThreads.isVirtual(thread)) {
+				creationSites.put(thread, new Throwable("creation site of " + thread));
+			}
+			synchronized (createdThreads) {
+				createdThreads.add(thread);
+				if (createdThreads.size() >= pruneThreshold) {
+					pruneTerminatedThreads();
+					pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, createdThreads.size() * 2);
+				}
+			}
+		}
+	}
+
+	private void pruneTerminatedThreads() {
+		for (Iterator<Thread> it = createdThreads.iterator(); it.hasNext();) {
+			Thread currentThread = it.next();
+			if (currentThread.getState() == Thread.State.TERMINATED) {
+				it.remove();
+				trackedThreads.remove(currentThread);
+				creationSites.remove(currentThread);
+			}
+		}
+	}
+
+	@Override
+	public Set<Thread> getCreatedThreads() {
+		synchronized (createdThreads) {
+			return createdThreads;
+		}
+	}
+
+	@Override
+	public Map<Long, Throwable> getThreadIdAndCorrespondingException() {
+		return exeptionHandler.getThreadIdToException();
+	}
+
+	@Override
+	public ExceptionRecorder getExceptionRecorder() {
+		return exeptionHandler.getRecorder();
+	}
+
+	@Override
+	public Throwable getCreationSite(Thread thread) {
+		return creationSites.get(thread);
+	}
+}
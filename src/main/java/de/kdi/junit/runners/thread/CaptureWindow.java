@@ -0,0 +1,103 @@
+package de.kdi.junit.runners.thread;
+
+import gnu.trove.set.hash.THashSet;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lightweight {@link ThreadCreationMonitor} of a single test method, fed by the <br/>
+ * {@link ThreadMonitoringService}. Opening and closing a window neither creates a thread nor <br/>
+ * takes a full baseline. While the window is open it records the uncaught exceptions of all threads <br/>
+ * not attributed to another monitor, as short living threads may be missed by the polling. Afterwards <br/>
+ * it records the exceptions of its created threads until {@link #stopMonitoring()} finds them terminated.
+ */
+public class CaptureWindow implements ThreadCreationMonitor, UncaughtExceptionDispatcher.Receiver {
+
+	private final ThreadMonitoringService service;
+	private final Set<Thread> createdThreads = new THashSet<Thread>();
+	private final MappingUncaughtExceptionHandler exeptionHandler = new MappingUncaughtExceptionHandler();
+	private volatile boolean open;
+
+	CaptureWindow(ThreadMonitoringService service) {
+		this.service = service;
+	}
+
+	@Override
+	public void startMonitoring() {
+		open = true;
+		UncaughtExceptionDispatcher.register(this);
+		service.open(this);
+	}
+
+	/**
+	 * Returns after a final sweep, so every thread created before this call and still alive is recorded.<br/>
+	 * The uncaught exceptions of the threads still alive are recorded until a later call of this method <br/>
+	 * finds all of them terminated.
+	 */
+	@Override
+	public void stopMonitoring() {
+		if (open) {
+			service.close(this);
+			open = false;
+		}
+		UncaughtExceptionDispatcher.prune();
+	}
+
+	@Override
+	public boolean isAttributed(Thread thread) {
+		synchronized (createdThreads) {
+			return createdThreads.contains(thread);
+		}
+	}
+
+	@Override
+	public boolean isCatchingUnattributed() {
+		return open;
+	}
+
+	@Override
+	public boolean isReceiving() {
+		if (open) {
+			return true;
+		}
+		synchronized (createdThreads) {
+			for (Thread currentThread : createdThreads) {
+				if (currentThread.isAlive()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	void addCreatedThreads(Collection<Thread> threads) {
+		synchronized (createdThreads) {
+			createdThreads.addAll(threads);
+		}
+	}
+
+	@Override
+	public Set<Thread> getCreatedThreads() {
+		synchronized (createdThreads) {
+			return createdThreads;
+		}
+	}
+
+	@Override
+	public Map<Long, Throwable> getThreadIdAndCorrespondingException() {
+		return exeptionHandler.getThreadIdToException();
+	}
+
+	@Override
+	public ExceptionRecorder getExceptionRecorder() {
+		return exeptionHandler.getRecorder();
+	}
+
+	@Override
+	public Throwable getCreationSite(Thread thread) {
+		return null;
+	}
+
+}
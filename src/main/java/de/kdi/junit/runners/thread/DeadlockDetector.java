@@ -0,0 +1,109 @@
+package de.kdi.junit.runners.thread;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds deadlocks on monitors and ownable synchronizers by {@link ThreadMXBean#findDeadlockedThreads()}.<br/>
+ * Only deadlocks involving one of the tracked threads are reported, deadlocked threads left behind by <br/>
+ * other tests are ignored.
+ */
+public class DeadlockDetector {
+
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * @return the deadlock of the tracked threads or null, if there is none
+	 */
+	public Deadlock findDeadlock(Collection<Thread> trackedThreads) {
+		long[] deadlockedIds = THREAD_BEAN.findDeadlockedThreads();
+		if (deadlockedIds == null) {
+			return null;
+		}
+		TLongObjectHashMap<Thread> trackedById = new TLongObjectHashMap<Thread>();
+		for (Thread currentThread : trackedThreads) {
+			trackedById.put(currentThread.getId(), currentThread);
+		}
+		List<Thread> deadlockedThreads = new ArrayList<Thread>();
+		for (long currentId : deadlockedIds) {
+			Thread currentThread = trackedById.get(currentId);
+			if (currentThread != null) {
+				deadlockedThreads.add(currentThread);
+			}
+		}
+		if (deadlockedThreads.isEmpty()) {
+			return null;
+		}
+		ThreadInfo[] infos = THREAD_BEAN.getThreadInfo(deadlockedIds, THREAD_BEAN.isObjectMonitorUsageSupported(),
+				THREAD_BEAN.isSynchronizerUsageSupported());
+		return new Deadlock(deadlockedThreads, describe(infos));
+	}
+
+	/**
+	 * Describes every thread of the deadlock with the lock it waits for, its owner and the stack <br/>
+	 * including the locks held, like a thread dump does.
+	 */
+	static String describe(ThreadInfo[] infos) {
+		StringBuilder result = new StringBuilder("Deadlock of ").append(infos.length).append(" threads:\n");
+		for (ThreadInfo currentInfo : infos) {
+			if (currentInfo == null) {
+				continue; // terminated meanwhile
+			}
+			result.append('"').append(currentInfo.getThreadName()).append("\" (id ").append(currentInfo.getThreadId()).append(") ");
+			result.append(currentInfo.getThreadState()).append(" waiting for ").append(currentInfo.getLockName());
+			result.append(" owned by \"").append(currentInfo.getLockOwnerName()).append("\" (id ").append(currentInfo.getLockOwnerId());
+			result.append(")\n");
+			StackTraceElement[] stackTrace = currentInfo.getStackTrace();
+			MonitorInfo[] lockedMonitors = currentInfo.getLockedMonitors();
+			for (int depth = 0; depth < stackTrace.length; depth++) {
+				result.append("\tat ").append(stackTrace[depth]).append('\n');
+				for (MonitorInfo currentMonitor : lockedMonitors) {
+					if (currentMonitor.getLockedStackDepth() == depth) {
+						result.append("\t- locked ").append(currentMonitor).append('\n');
+					}
+				}
+			}
+			for (LockInfo currentSynchronizer : currentInfo.getLockedSynchronizers()) {
+				result.append("\t- locked synchronizer ").append(currentSynchronizer).append('\n');
+			}
+			result.append('\n');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * The tracked threads of a deadlock together with the lock graph and stacks of all threads involved.
+	 */
+	public static class Deadlock {
+
+		private final List<Thread> threads;
+		private final String description;
+
+		Deadlock(List<Thread> threads, String description) {
+			this.threads = threads;
+			this.description = description;
+		}
+
+		public List<Thread> getThreads() {
+			return threads;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		@Override
+		public String toString() {
+			return description;
+		}
+	}
+
+}
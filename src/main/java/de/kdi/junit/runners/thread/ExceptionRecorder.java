@@ -0,0 +1,153 @@
+package de.kdi.junit.runners.thread;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free recorder for exceptions thrown by many threads at the same time.<br/>
+ * Every exception gets a sequence number by a single atomic increment, which determines the order <br/>
+ * of arrival and the slot where it is stored. Only the first <i>capacity</i> exceptions are stored, <br/>
+ * all further ones are counted only, so a storm of failing threads can't exhaust the heap. An exception <br/>
+ * is counted after it has been stored, so every counted exception is visible as long as it is stored.<br/>
+ * A thread waiting for other threads can ask to be interrupted by the first recorded exception, <br/>
+ * see {@link #wakeOnRecord(Thread)}.
+ */
+public class ExceptionRecorder {
+
+	public static final int DEFAULT_CAPACITY = 1000;
+
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicLong recordedCount = new AtomicLong();
+	private final AtomicReferenceArray<RecordedException> records;
+	private final Object wakeLock = new Object();
+	private volatile Thread threadToWake;
+	private boolean woken;
+
+	public ExceptionRecorder() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public ExceptionRecorder(int capacity) {
+		records = new AtomicReferenceArray<RecordedException>(capacity);
+	}
+
+	/**
+	 * @return the recorded exception or null, if the capacity is exhausted and the exception has only been counted
+	 */
+	public RecordedException record(Thread thread, Throwable throwable) {
+		return record(thread.getId(), thread.getName(), throwable);
+	}
+
+	/**
+	 * Records an exception which is not related to a thread, like the failure of a future.
+	 *
+	 * @return the recorded exception or null, if the capacity is exhausted and the exception has only been counted
+	 */
+	public RecordedException record(long threadId, String threadName, Throwable throwable) {
+		long sequenceNumber = sequence.getAndIncrement();
+		if (sequenceNumber >= records.length()) {
+			recordedCount.incrementAndGet();
+			return null;
+		}
+		RecordedException result = new RecordedException(sequenceNumber, threadId, threadName, throwable);
+		records.set((int) sequenceNumber, result);
+		recordedCount.incrementAndGet(); // after the slot, a reader seeing the count sees the exception as well
+		if (threadToWake != null) {
+			wakeWaitingThread();
+		}
+		return result;
+	}
+
+	private void wakeWaitingThread() {
+		synchronized (wakeLock) {
+			if (threadToWake != null) {
+				threadToWake.interrupt();
+				threadToWake = null;
+				woken = true;
+			}
+		}
+	}
+
+	/**
+	 * Interrupts the given thread as soon as an exception is recorded, until {@link #stopWaking()} is called.<br/>
+	 * If an exception has been recorded already, the thread is interrupted at once.
+	 */
+	public void wakeOnRecord(Thread thread) {
+		synchronized (wakeLock) {
+			woken = false;
+			threadToWake = thread;
+		}
+		if (recordedCount.get() > 0) {
+			wakeWaitingThread();
+		}
+	}
+
+	/**
+	 * Stops the waking and clears the interrupt caused by this recorder, the calling thread has to be the woken one.
+	 *
+	 * @return true if the thread has been woken by an exception
+	 */
+	public boolean stopWaking() {
+		synchronized (wakeLock) {
+			threadToWake = null;
+			if (woken) {
+				Thread.interrupted();
+			}
+			return woken;
+		}
+	}
+
+	/**
+	 * @return the number of all exceptions, including the ones which have only been counted
+	 */
+	public long getRecordedCount() {
+		return recordedCount.get();
+	}
+
+	public long getDroppedCount() {
+		return Math.max(0, recordedCount.get() - records.length());
+	}
+
+	public int getCapacity() {
+		return records.length();
+	}
+
+	/**
+	 * @return the stored exceptions in the order of their arrival. Exceptions which are just being
+	 *         recorded by another thread may be missing.
+	 */
+	public List<RecordedException> getRecordedExceptions() {
+		int stored = (int) Math.min(sequence.get(), records.length());
+		List<RecordedException> result = new ArrayList<RecordedException>(stored);
+		for (int i = 0; i < stored; i++) {
+			RecordedException currentRecord = records.get(i);
+			if (currentRecord != null) {
+				result.add(currentRecord);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the first stored exception or null, if there is none
+	 */
+	public Throwable getFirstThrowable() {
+		List<RecordedException> recordedExceptions = getRecordedExceptions();
+		return recordedExceptions.isEmpty() ? null : recordedExceptions.get(0).getThrowable();
+	}
+
+	/**
+	 * @return the stored exceptions by thread id, the last one wins for threads with multiple exceptions
+	 */
+	public Map<Long, Throwable> getThreadIdToException() {
+		Map<Long, Throwable> result = new LinkedHashMap<Long, Throwable>();
+		for (RecordedException currentRecord : getRecordedExceptions()) {
+			result.put(Long.valueOf(currentRecord.getThreadId()), currentRecord.getThrowable());
+		}
+		return result;
+	}
+}
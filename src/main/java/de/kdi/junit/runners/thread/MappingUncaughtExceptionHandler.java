@@ -1,22 +1,38 @@
 package de.kdi.junit.runners.thread;
 
-import gnu.trove.map.hash.THashMap;
-
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.Map;
 
-
+/**
+ * Records the uncaught exceptions of all threads in an {@link ExceptionRecorder}.<br/>
+ * Safe to be called by many dying threads at the same time.
+ */
 public class MappingUncaughtExceptionHandler implements UncaughtExceptionHandler {
 
-	private Map<Long, Throwable> threadIdToException = new THashMap<Long, Throwable>();
-	
+	private final ExceptionRecorder recorder;
+
+	public MappingUncaughtExceptionHandler() {
+		this(new ExceptionRecorder());
+	}
+
+	public MappingUncaughtExceptionHandler(ExceptionRecorder recorder) {
+		this.recorder = recorder;
+	}
+
 	@Override
 	public void uncaughtException(Thread t, Throwable e) {
-		threadIdToException.put(Long.valueOf(t.getId()), e);
+		recorder.record(t, e);
 	}
-	
+
+	/**
+	 * @return a copy of the recorded exceptions by thread id
+	 */
 	public Map<Long, Throwable> getThreadIdToException() {
-		return threadIdToException;
+		return recorder.getThreadIdToException();
 	}
-	
+
+	public ExceptionRecorder getRecorder() {
+		return recorder;
+	}
+
 }
@@ -0,0 +1,122 @@
+package de.kdi.junit.runners.thread;
+
+import gnu.trove.set.hash.THashSet;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thread group for a single test method, which is its own {@link ThreadCreationMonitor}.<br/>
+ * Threads inherit the group of the creating thread, so all threads created by the test method are <br/>
+ * part of this group. Their uncaught exceptions are recorded here instead of being passed to the <br/>
+ * jvm wide default handler, which allows multiple tests to be monitored at the same time.<br/>
+ * The group has to be destroyed by {@link #destroyIfTerminated()} after the test thread has finished.<br/>
+ * <br/>
+ * Threads which are not part of the group, like virtual threads or threads created with another <br/>
+ * group, inherit the monitoring group as {@link InheritableThreadLocal}. Their uncaught exceptions <br/>
+ * are routed here by the {@link UncaughtExceptionDispatcher} until the group is destroyed. Virtual threads <br/>
+ * can't be enumerated, so they are not part of the created threads.
+ */
+public class MonitoringThreadGroup extends ThreadGroup implements ThreadCreationMonitor, UncaughtExceptionDispatcher.Receiver {
+
+	private static final InheritableThreadLocal<MonitoringThreadGroup> OWNER = new InheritableThreadLocal<MonitoringThreadGroup>();
+
+	private final MappingUncaughtExceptionHandler exeptionHandler = new MappingUncaughtExceptionHandler();
+	private Thread testThread;
+	private volatile boolean destroyed;
+
+	public MonitoringThreadGroup(String name) {
+		super(name);
+	}
+
+	/**
+	 * Destroys the group, unless threads created by the test method are still alive.
+	 *
+	 * @return true if the group is destroyed
+	 */
+	public boolean destroyIfTerminated() {
+		try {
+			if (!isDestroyed()) {
+				destroy();
+			}
+		} catch (IllegalThreadStateException e) { // a leaked thread is still part of the group
+			return false;
+		}
+		destroyed = true;
+		UncaughtExceptionDispatcher.prune();
+		return true;
+	}
+
+	@Override
+	public void uncaughtException(Thread t, Throwable e) {
+		exeptionHandler.uncaughtException(t, e);
+	}
+
+	/**
+	 * Has to be called by the test thread, which must be part of this group.
+	 */
+	@Override
+	public void startMonitoring() {
+		testThread = Thread.currentThread();
+		OWNER.set(this);
+		UncaughtExceptionDispatcher.register(this);
+	}
+
+	@Override
+	public void stopMonitoring() {
+		// threads can't leave the group, the group receives exceptions until it is destroyed
+	}
+
+	/**
+	 * @return true if the dying thread has inherited this group as monitoring group
+	 */
+	@Override
+	public boolean isAttributed(Thread thread) {
+		return thread == Thread.currentThread() && OWNER.get() == this;
+	}
+
+	@Override
+	public boolean isCatchingUnattributed() {
+		return false;
+	}
+
+	@Override
+	public boolean isReceiving() {
+		return !destroyed; // isDestroyed() is always false since java 19
+	}
+
+	/**
+	 * @return the threads of this group which are alive, except the test thread
+	 */
+	@Override
+	public Set<Thread> getCreatedThreads() {
+		Thread[] threads = new Thread[activeCount() + 1];
+		int count = enumerate(threads, true);
+		while (count == threads.length) {
+			threads = new Thread[threads.length * 2];
+			count = enumerate(threads, true);
+		}
+		Set<Thread> result = new THashSet<Thread>();
+		for (int i = 0; i < count; i++) {
+			if (threads[i] != testThread) {
+				result.add(threads[i]);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Map<Long, Throwable> getThreadIdAndCorrespondingException() {
+		return exeptionHandler.getThreadIdToException();
+	}
+
+	@Override
+	public ExceptionRecorder getExceptionRecorder() {
+		return exeptionHandler.getRecorder();
+	}
+
+	@Override
+	public Throwable getCreationSite(Thread thread) {
+		return null;
+	}
+}
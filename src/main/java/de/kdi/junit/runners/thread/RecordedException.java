@@ -0,0 +1,40 @@
+package de.kdi.junit.runners.thread;
+
+/**
+ * An uncaught exception together with the thread which has thrown it and its position in the order of arrival.
+ */
+public class RecordedException {
+
+	private final long sequenceNumber;
+	private final long threadId;
+	private final String threadName;
+	private final Throwable throwable;
+
+	public RecordedException(long sequenceNumber, long threadId, String threadName, Throwable throwable) {
+		this.sequenceNumber = sequenceNumber;
+		this.threadId = threadId;
+		this.threadName = threadName;
+		this.throwable = throwable;
+	}
+
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public long getThreadId() {
+		return threadId;
+	}
+
+	public String getThreadName() {
+		return threadName;
+	}
+
+	public Throwable getThrowable() {
+		return throwable;
+	}
+
+	@Override
+	public String toString() {
+		return "#" + sequenceNumber + " " + threadName + " (ID = " + threadId + "): " + throwable;
+	}
+}
@@ -0,0 +1,37 @@
+package de.kdi.junit.runners.thread;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Monitors the threads created by a test method and the exceptions they have thrown.
+ */
+public interface ThreadCreationMonitor {
+
+	/**
+	 * Starts the monitoring for the threads created by the calling thread.
+	 */
+	void startMonitoring();
+
+	/**
+	 * Stops the monitoring, threads created afterwards will not be recorded.
+	 */
+	void stopMonitoring() throws InterruptedException;
+
+	Set<Thread> getCreatedThreads();
+
+	/**
+	 * @return a copy of the recorded exceptions by thread id
+	 */
+	Map<Long, Throwable> getThreadIdAndCorrespondingException();
+
+	/**
+	 * @return the recorder of all uncaught exceptions of the created threads
+	 */
+	ExceptionRecorder getExceptionRecorder();
+
+	/**
+	 * @return a throwable whose stack trace points to the creation of the thread or null, if unknown
+	 */
+	Throwable getCreationSite(Thread thread);
+}
@@ -4,38 +4,136 @@ import gnu.trove.set.hash.THashSet;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
 
-public class ThreadDifferenceMonitor implements Runnable {
+/**
+ * Records the threads created after its construction until the monitoring thread is interrupted.<br/>
+ * The poll interval adapts like the one of the {@link ThreadMonitoringService}. A thread living shorter <br/>
+ * than the current interval may be missed, but its uncaught exception is still recorded, as the monitor <br/>
+ * takes the exceptions of all unattributed threads from the {@link UncaughtExceptionDispatcher} until <br/>
+ * the monitoring thread has finished.
+ *
+ * @deprecated replaced by the {@link CaptureWindow} of the {@link ThreadMonitoringService}, which doesn't <br/>
+ *             need a thread per test method
+ */
+@Deprecated
+public class ThreadDifferenceMonitor implements Runnable, ThreadCreationMonitor, UncaughtExceptionDispatcher.Receiver {
 
 	private ThreadMonitor monitor;
+	private ThreadSnapshot snapshot;
 	private Set<Thread> createdThreads;
 	private MappingUncaughtExceptionHandler exeptionHandler;
+	private Thread monitoringThread;
+	private volatile boolean open;
 
 	public ThreadDifferenceMonitor() {
-		monitor = new ThreadMonitor();
+		snapshot = new ThreadSnapshot();
+		snapshot.capture();
+		monitor = new ThreadMonitor(snapshot);
 		createdThreads = new THashSet<Thread>();
 		exeptionHandler = new MappingUncaughtExceptionHandler();
-		Thread.setDefaultUncaughtExceptionHandler(exeptionHandler);
+		open = true;
+		UncaughtExceptionDispatcher.register(this);
+	}
+
+	/**
+	 * Takes a new baseline synchronously, so every thread created after this method has returned <br/>
+	 * will be recorded, no matter when the monitoring thread is scheduled.
+	 */
+	@Override
+	public void startMonitoring() {
+		monitoringThread = new Thread(this, "ThreadDifferenceMonitor");
+		synchronized (createdThreads) {
+			snapshot.capture();
+			monitor = new ThreadMonitor(snapshot);
+			monitor.addKnownThread(monitoringThread.getId());
+		}
+		monitoringThread.start();
+	}
+
+	/**
+	 * Returns after the monitoring thread has taken its final snapshot, so every thread created <br/>
+	 * before this call and still alive is recorded. The uncaught exceptions of the threads still alive <br/>
+	 * are recorded until a later call of this method finds all of them terminated.
+	 */
+	@Override
+	public void stopMonitoring() throws InterruptedException {
+		monitoringThread.interrupt();
+		monitoringThread.join();
+		UncaughtExceptionDispatcher.prune();
 	}
 
 	@Override
 	public void run() {
-		while (!Thread.currentThread().isInterrupted()) {
-			Set<Thread> newThreads = monitor.getDifference(new THashSet<Thread>(Thread.getAllStackTraces().keySet()));
-			createdThreads.addAll(newThreads);
+		long pollInterval = ThreadMonitoringService.MIN_POLL_INTERVAL_NANOS;
+		while (!Thread.currentThread().isInterrupted()) { // interrupted by stopMonitoring()
+			if (sweep() > 0) {
+				pollInterval = ThreadMonitoringService.MIN_POLL_INTERVAL_NANOS;
+			} else {
+				pollInterval = Math.min(pollInterval << 1, ThreadMonitoringService.MAX_POLL_INTERVAL_NANOS);
+			}
+			LockSupport.parkNanos(this, pollInterval);
+		}
+		sweep(); // final sweep after the interruption
+		snapshot.release();
+		open = false;
+		UncaughtExceptionDispatcher.prune();
+	}
+
+	@Override
+	public boolean isAttributed(Thread thread) {
+		synchronized (createdThreads) {
+			return createdThreads.contains(thread);
 		}
 	}
 
+	@Override
+	public boolean isCatchingUnattributed() {
+		return open;
+	}
+
+	@Override
+	public boolean isReceiving() {
+		if (open) {
+			return true;
+		}
+		synchronized (createdThreads) {
+			for (Thread currentThread : createdThreads) {
+				if (currentThread.isAlive()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private int sweep() {
+		synchronized (createdThreads) {
+			snapshot.capture();
+			return monitor.getDifference(snapshot, createdThreads);
+		}
+	}
+
+	@Override
 	public Set<Thread> getCreatedThreads() {
 		synchronized (createdThreads) {
 			return createdThreads;
 		}
 	}
 
+	@Override
 	public Map<Long, Throwable> getThreadIdAndCorrespondingException() {
-		synchronized (exeptionHandler) {
-			return exeptionHandler.getThreadIdToException();
-		}
+		return exeptionHandler.getThreadIdToException();
+	}
+
+	@Override
+	public ExceptionRecorder getExceptionRecorder() {
+		return exeptionHandler.getRecorder();
+	}
+
+	@Override
+	public Throwable getCreationSite(Thread thread) {
+		return null;
 	}
 
 }
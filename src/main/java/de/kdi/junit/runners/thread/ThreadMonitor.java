@@ -3,30 +3,71 @@ package de.kdi.junit.runners.thread;
 import gnu.trove.set.hash.THashSet;
 import gnu.trove.set.hash.TLongHashSet;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 
 public class ThreadMonitor {
-	
+
 	TLongHashSet currentThreadsId = new TLongHashSet();
 
 	public ThreadMonitor() {
-		Set<Thread> currentThreads = new THashSet<Thread>(Thread.getAllStackTraces().keySet());
-		for(Thread currentThread : currentThreads){
-			currentThreadsId.add(currentThread.getId());
+		this(captureSnapshot());
+	}
+
+	public ThreadMonitor(ThreadSnapshot baseline) {
+		long[] threadIds = baseline.getThreadIds();
+		for (int i = 0; i < baseline.size(); i++) {
+			currentThreadsId.add(threadIds[i]);
 		}
 	}
-	
+
+	private static ThreadSnapshot captureSnapshot() {
+		ThreadSnapshot snapshot = new ThreadSnapshot();
+		snapshot.capture();
+		return snapshot;
+	}
+
+	/**
+	 * The thread with the given id will not be part of a difference.
+	 */
+	public void addKnownThread(long threadId) {
+		currentThreadsId.add(threadId);
+	}
+
+	public int getKnownThreadCount() {
+		return currentThreadsId.size();
+	}
+
 	public Set<Thread> getDifference(Set<Thread> comparable){
 		Set<Thread> result = new THashSet<Thread>();
 		for (Iterator<Thread> it = comparable.iterator(); it.hasNext();) {
 			Thread currentThreadComparable = it.next();
-			long threadId = currentThreadComparable.getId();
-			if(!currentThreadsId.contains(threadId)){
+			if(currentThreadsId.add(currentThreadComparable.getId())){
 				result.add(currentThreadComparable);
-				currentThreadsId.add(threadId);
 			}
 		}
 		return result;
 	}
+
+	/**
+	 * Adds all threads of the snapshot which are unknown to this monitor to the given collection.<br/>
+	 * The ids of these threads will be known afterwards. No allocation is done apart from <br/>
+	 * the insertion into the given collection.
+	 *
+	 * @param snapshot the current snapshot of live threads
+	 * @param newThreads receives the unknown threads
+	 * @return the number of unknown threads
+	 */
+	public int getDifference(ThreadSnapshot snapshot, Collection<Thread> newThreads) {
+		long[] threadIds = snapshot.getThreadIds();
+		int found = 0;
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (currentThreadsId.add(threadIds[i])) {
+				newThreads.add(snapshot.getThread(i));
+				found++;
+			}
+		}
+		return found;
+	}
 }
@@ -0,0 +1,192 @@
+package de.kdi.junit.runners.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Jvm scoped polling service replacing a {@link ThreadDifferenceMonitor} and its thread per test method.<br/>
+ * A single daemon thread keeps the set of known threads up to date and hands every new thread to <br/>
+ * the open {@link CaptureWindow}s. While no window is open the thread waits without polling. The known <br/>
+ * threads are updated incrementally, they are only rebuilt from a snapshot when most of them have died.<br/>
+ * <br/>
+ * The poll interval starts at {@link #MIN_POLL_INTERVAL_NANOS} and is doubled after every sweep without <br/>
+ * new threads up to {@link #MAX_POLL_INTERVAL_NANOS}. Finding a new thread resets it, so bursts of short <br/>
+ * living threads are sampled densely while an idle test costs almost no cpu. The registered <br/>
+ * {@link ThreadResourceSampler}s are sampled with an interval growing from {@link #MIN_SAMPLE_INTERVAL_NANOS} <br/>
+ * to {@link #MAX_SAMPLE_INTERVAL_NANOS}, even while no window is open. Its owner samples at the start of the test method, <br/>
+ * before the shutdown wait and at the end as well.
+ */
+public final class ThreadMonitoringService implements Runnable {
+
+	static final long MIN_POLL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	static final long MAX_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	static final long MIN_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	static final long MAX_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(800);
+
+	private static final ThreadMonitoringService INSTANCE = new ThreadMonitoringService();
+
+	private final Object lock = new Object();
+	private final ThreadSnapshot snapshot = new ThreadSnapshot();
+	private final List<CaptureWindow> openWindows = new ArrayList<CaptureWindow>();
+	private final List<Thread> newThreads = new ArrayList<Thread>();
+	private final List<ThreadResourceSampler> samplers = new ArrayList<ThreadResourceSampler>();
+	private long sampleInterval = MIN_SAMPLE_INTERVAL_NANOS;
+	private long nextSample;
+	private ThreadMonitor monitor;
+	private Thread monitoringThread;
+
+	private ThreadMonitoringService() {}
+
+	public static ThreadMonitoringService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return a new window, which records threads between its {@link CaptureWindow#startMonitoring()} <br/>
+	 *         and {@link CaptureWindow#stopMonitoring()}
+	 */
+	public CaptureWindow newCaptureWindow() {
+		return new CaptureWindow(this);
+	}
+
+	/**
+	 * Updates the known threads synchronously, so every thread created after this method has returned <br/>
+	 * will be handed to the window.
+	 */
+	void open(CaptureWindow window) {
+		synchronized (lock) {
+			ensureMonitoringThread();
+			sweep();
+			pruneKnownThreads();
+			openWindows.add(window);
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Hands the threads created until now to the open windows and removes the given one.
+	 */
+	void close(CaptureWindow window) {
+		synchronized (lock) {
+			sweep();
+			openWindows.remove(window);
+			if (openWindows.isEmpty()) {
+				snapshot.release();
+			}
+		}
+	}
+
+	/**
+	 * Samples the given sampler periodically until {@link #stopSampling(ThreadResourceSampler)}.
+	 */
+	public void startSampling(ThreadResourceSampler sampler) {
+		synchronized (lock) {
+			ensureMonitoringThread();
+			samplers.add(sampler);
+			sampleInterval = MIN_SAMPLE_INTERVAL_NANOS;
+			nextSample = System.nanoTime() + sampleInterval;
+			lock.notifyAll();
+		}
+		sampler.sample();
+	}
+
+	/**
+	 * Takes a final sample and removes the sampler.
+	 */
+	public void stopSampling(ThreadResourceSampler sampler) {
+		synchronized (lock) {
+			samplers.remove(sampler);
+		}
+		sampler.sample();
+	}
+
+	private void ensureMonitoringThread() {
+		if (monitoringThread == null) {
+			// the root group is never destroyed, in contrast to the group of the first test thread
+			monitoringThread = new Thread(snapshot.getRootGroup(), this, "ThreadMonitoringService");
+			monitoringThread.setDaemon(true);
+			snapshot.capture();
+			monitor = new ThreadMonitor(snapshot);
+			monitor.addKnownThread(monitoringThread.getId());
+			monitoringThread.start();
+		}
+	}
+
+	/**
+	 * Rebuilds the known threads from the last snapshot when they contain more dead threads than live ones.
+	 */
+	private void pruneKnownThreads() {
+		if (monitor.getKnownThreadCount() > 2 * snapshot.size()) {
+			monitor = new ThreadMonitor(snapshot);
+			monitor.addKnownThread(monitoringThread.getId());
+		}
+	}
+
+	@Override
+	public void run() {
+		long pollInterval = MIN_POLL_INTERVAL_NANOS;
+		while (true) {
+			long parkNanos;
+			synchronized (lock) {
+				while (openWindows.isEmpty() && samplers.isEmpty()) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+					pollInterval = MIN_POLL_INTERVAL_NANOS;
+				}
+				if (!openWindows.isEmpty()) {
+					if (sweep() > 0) {
+						pollInterval = MIN_POLL_INTERVAL_NANOS;
+					} else {
+						pollInterval = Math.min(pollInterval << 1, MAX_POLL_INTERVAL_NANOS);
+					}
+				}
+				parkNanos = sampleWhenDue();
+				if (!openWindows.isEmpty()) {
+					parkNanos = Math.min(parkNanos, pollInterval);
+				}
+			}
+			LockSupport.parkNanos(this, parkNanos);
+		}
+	}
+
+	/**
+	 * Must be called holding the lock.
+	 *
+	 * @return the time until the next sample is due
+	 */
+	private long sampleWhenDue() {
+		long now = System.nanoTime();
+		if (samplers.isEmpty()) {
+			return MAX_SAMPLE_INTERVAL_NANOS;
+		}
+		if (now - nextSample >= 0) {
+			for (ThreadResourceSampler currentSampler : samplers) {
+				currentSampler.sample();
+			}
+			sampleInterval = Math.min(sampleInterval << 1, MAX_SAMPLE_INTERVAL_NANOS);
+			nextSample = now + sampleInterval;
+		}
+		return nextSample - now;
+	}
+
+	/**
+	 * Must be called holding the lock.
+	 */
+	private int sweep() {
+		snapshot.capture();
+		int found = monitor.getDifference(snapshot, newThreads);
+		if (found > 0) {
+			for (CaptureWindow currentWindow : openWindows) {
+				currentWindow.addCreatedThreads(newThreads);
+			}
+			newThreads.clear(); // without open window the threads just become known
+		}
+		return found;
+	}
+
+}
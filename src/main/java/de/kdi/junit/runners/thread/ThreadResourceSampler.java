@@ -0,0 +1,108 @@
+package de.kdi.junit.runners.thread;
+
+import gnu.trove.map.hash.TLongLongHashMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Samples the cpu time and the allocated bytes of the threads recorded by a {@link ThreadCreationMonitor} <br/>
+ * via the {@link ThreadMXBean}. The values of a thread are only readable while it is alive, so the last <br/>
+ * sample taken before its termination is kept. A thread finishing between two samples therefore <br/>
+ * contributes less than it has used. The samples are taken by the {@link ThreadMonitoringService} and <br/>
+ * by the {@link de.kdi.junit.runners.metrics.TestMetricsRecorder} before the shutdown wait.<br/>
+ * <br/>
+ * Values which are not supported by the jvm are reported as -1.
+ */
+public class ThreadResourceSampler {
+
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+	private static final boolean CPU_TIME_SUPPORTED = THREAD_BEAN.isThreadCpuTimeSupported();
+	private static final boolean ALLOCATED_BYTES_SUPPORTED = isAllocatedBytesSupported();
+
+	private final ThreadCreationMonitor monitor;
+	private final List<Thread> threads = new ArrayList<Thread>();
+	private final TLongLongHashMap cpuTimes = new TLongLongHashMap();
+	private final TLongLongHashMap allocatedBytes = new TLongLongHashMap();
+	private int peakLiveThreads;
+
+	public ThreadResourceSampler(ThreadCreationMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	private static boolean isAllocatedBytesSupported() {
+		try {
+			return THREAD_BEAN instanceof com.sun.management.ThreadMXBean
+					&& ((com.sun.management.ThreadMXBean) THREAD_BEAN).isThreadAllocatedMemorySupported();
+		} catch (LinkageError e) { // not a hotspot based jvm
+			return false;
+		}
+	}
+
+	/**
+	 * Takes a sample of all live threads of the monitor.
+	 */
+	public synchronized void sample() {
+		Set<Thread> createdThreads = monitor.getCreatedThreads();
+		synchronized (createdThreads) {
+			threads.addAll(createdThreads);
+		}
+		int liveThreads = 0;
+		for (Thread currentThread : threads) {
+			if (currentThread.isAlive()) {
+				liveThreads++;
+				sample(currentThread.getId());
+			}
+		}
+		peakLiveThreads = Math.max(peakLiveThreads, liveThreads);
+		threads.clear();
+	}
+
+	private void sample(long threadId) {
+		if (CPU_TIME_SUPPORTED) {
+			long cpuTime = THREAD_BEAN.getThreadCpuTime(threadId);
+			if (cpuTime > cpuTimes.get(threadId)) { // -1 for a thread which has just finished
+				cpuTimes.put(threadId, cpuTime);
+			}
+		}
+		if (ALLOCATED_BYTES_SUPPORTED) {
+			long bytes = ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(threadId);
+			if (bytes > allocatedBytes.get(threadId)) {
+				allocatedBytes.put(threadId, bytes);
+			}
+		}
+	}
+
+	/**
+	 * @return the sum of the sampled cpu times in nanoseconds or -1
+	 */
+	public synchronized long getCpuTimeNanos() {
+		return CPU_TIME_SUPPORTED ? sum(cpuTimes) : -1;
+	}
+
+	/**
+	 * @return the sum of the sampled allocated bytes or -1
+	 */
+	public synchronized long getAllocatedBytes() {
+		return ALLOCATED_BYTES_SUPPORTED ? sum(allocatedBytes) : -1;
+	}
+
+	/**
+	 * @return the highest number of live threads found by a sample
+	 */
+	public synchronized int getPeakLiveThreads() {
+		return peakLiveThreads;
+	}
+
+	private static long sum(TLongLongHashMap values) {
+		long result = 0;
+		for (long currentValue : values.values()) {
+			result += currentValue;
+		}
+		return result;
+	}
+
+}
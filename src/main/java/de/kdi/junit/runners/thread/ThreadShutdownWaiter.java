@@ -0,0 +1,100 @@
+package de.kdi.junit.runners.thread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for the termination of threads until a deadline shared by all of them.<br/>
+ * The threads are joined one after another with the remaining time, so the waiting ends as soon <br/>
+ * as the last thread has finished or the deadline has passed, independent of the number of threads.<br/>
+ * Daemon threads are not waited for, except virtual threads which are always daemon threads.<br/>
+ * Subclasses may measure the time by another clock, see {@link #nanoTime()}.<br/>
+ * <br/>
+ * While waiting, the threads are checked for deadlocks every {@link #DEADLOCK_CHECK_INTERVAL_NANOS}. <br/>
+ * The waiting ends at once when they are deadlocked, see {@link #getDeadlock()}.
+ */
+public class ThreadShutdownWaiter {
+
+	static final long DEADLOCK_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final long deadline;
+	private DeadlockDetector deadlockDetector = new DeadlockDetector();
+	private DeadlockDetector.Deadlock deadlock;
+
+	public ThreadShutdownWaiter(long timeoutMillis) {
+		this(timeoutMillis, System.nanoTime());
+	}
+
+	/**
+	 * @param now the current time of the clock used by {@link #nanoTime()}
+	 */
+	protected ThreadShutdownWaiter(long timeoutMillis, long now) {
+		deadline = now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+	}
+
+	/**
+	 * @return the threads which are still alive after the deadline has passed or a deadlock has been found
+	 */
+	public List<Thread> awaitTermination(Collection<Thread> threads) throws InterruptedException {
+		List<Thread> result = new ArrayList<Thread>();
+		for (Thread currentThread : threads) {
+			if (currentThread.isDaemon() && !VirtualThreads.isVirtual(currentThread)) {
+				continue;
+			}
+			long remaining;
+			while (deadlock == null && currentThread.isAlive() && (remaining = getRemainingNanos()) > 0) {
+				join(currentThread, deadlockDetector == null ? remaining : Math.min(remaining, DEADLOCK_CHECK_INTERVAL_NANOS));
+				if (deadlockDetector != null && currentThread.isAlive()) {
+					deadlock = deadlockDetector.findDeadlock(threads);
+				}
+			}
+			if (currentThread.isAlive()) {
+				result.add(currentThread);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the deadlock which has ended the waiting or null
+	 */
+	public DeadlockDetector.Deadlock getDeadlock() {
+		return deadlock;
+	}
+
+	public void setDeadlockDetection(boolean enabled) {
+		deadlockDetector = enabled ? new DeadlockDetector() : null;
+	}
+
+	public long getRemainingNanos() {
+		return deadline - nanoTime();
+	}
+
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * @return true if {@link #nanoTime()} is not the real time. The remaining time must not be waited <br/>
+	 *         for by other means then, but in short {@link #pause(long)}s.
+	 */
+	public boolean isVirtual() {
+		return false;
+	}
+
+	/**
+	 * Waits the given real time, the clock used by {@link #nanoTime()} may advance meanwhile.
+	 */
+	public void pause(long nanos) throws InterruptedException {
+		TimeUnit.NANOSECONDS.sleep(nanos);
+	}
+
+	/**
+	 * Waits at most the given time of the clock used by {@link #nanoTime()} for the termination of the thread.
+	 */
+	protected void join(Thread thread, long nanos) throws InterruptedException {
+		TimeUnit.NANOSECONDS.timedJoin(thread, nanos);
+	}
+}
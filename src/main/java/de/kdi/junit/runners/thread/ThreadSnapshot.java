@@ -0,0 +1,97 @@
+package de.kdi.junit.runners.thread;
+
+/**
+ * Reusable snapshot of the live threads of the jvm.<br/>
+ * In contrast to {@link Thread#getAllStackTraces()} no stack traces are captured and the internal <br/>
+ * buffers are reused between two captures. A capture does not allocate as long as the number <br/>
+ * of live threads does not exceed the capacity reached by a former capture.<br/>
+ * <br/>
+ * Instances are not thread safe.
+ */
+public class ThreadSnapshot {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final ThreadGroup rootGroup;
+	private Thread[] threads;
+	private long[] threadIds;
+	private int size;
+
+	public ThreadSnapshot() {
+		this(INITIAL_CAPACITY);
+	}
+
+	ThreadSnapshot(int initialCapacity) {
+		rootGroup = findRootGroup();
+		threads = new Thread[Math.max(1, initialCapacity)];
+		threadIds = new long[threads.length];
+	}
+
+	/**
+	 * Takes a new snapshot of all live threads and replaces the former one.
+	 *
+	 * @return the number of captured threads
+	 */
+	public int capture() {
+		int count = rootGroup.enumerate(threads, true);
+		while (count == threads.length) { // the buffer may have been too small
+			threads = new Thread[threads.length * 2];
+			count = rootGroup.enumerate(threads, true);
+		}
+		if (threadIds.length < threads.length) {
+			threadIds = new long[threads.length];
+		}
+		for (int i = 0; i < count; i++) {
+			threadIds[i] = threads[i].getId();
+		}
+		clearReferences(count, size);
+		size = count;
+		return count;
+	}
+
+	/**
+	 * Drops the references to the captured threads, so that finished threads can be collected.
+	 */
+	public void release() {
+		clearReferences(0, size);
+		size = 0;
+	}
+
+	private void clearReferences(int from, int to) {
+		for (int i = from; i < to; i++) {
+			threads[i] = null;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the ids of the captured threads, only the first {@link #size()} entries are valid
+	 */
+	public long[] getThreadIds() {
+		return threadIds;
+	}
+
+	public long getThreadId(int index) {
+		return threadIds[index];
+	}
+
+	public Thread getThread(int index) {
+		return threads[index];
+	}
+
+	ThreadGroup getRootGroup() {
+		return rootGroup;
+	}
+
+	static ThreadGroup findRootGroup() {
+		ThreadGroup result = Thread.currentThread().getThreadGroup();
+		while (result.getParent() != null) {
+			result = result.getParent();
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,100 @@
+package de.kdi.junit.runners.thread;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The single jvm wide default uncaught exception handler shared by all {@link ThreadCreationMonitor}s.<br/>
+ * An exception is recorded by the most recently registered receiver its thread is attributed to, <br/>
+ * so a nested monitor takes precedence over an enclosing one. The exception of a thread attributed <br/>
+ * to no receiver is recorded by the most recent receiver catching unattributed exceptions, <br/>
+ * otherwise it is passed to the former default handler. The dispatcher is installed by the first <br/>
+ * {@link #register(Receiver)} and the former handler is restored as soon as {@link #prune()} finds <br/>
+ * no receiver left.
+ */
+final class UncaughtExceptionDispatcher implements UncaughtExceptionHandler {
+
+	/**
+	 * A monitor recording the uncaught exceptions of its threads.
+	 */
+	interface Receiver {
+
+		/**
+		 * @return true if the thread is created by the monitored test method
+		 */
+		boolean isAttributed(Thread thread);
+
+		/**
+		 * @return true if the exceptions of threads attributed to no receiver are recorded as well
+		 */
+		boolean isCatchingUnattributed();
+
+		/**
+		 * @return false as soon as the receiver can't get any exception anymore
+		 */
+		boolean isReceiving();
+
+		ExceptionRecorder getExceptionRecorder();
+	}
+
+	private static final UncaughtExceptionDispatcher INSTANCE = new UncaughtExceptionDispatcher();
+	private static final Object LOCK = new Object();
+
+	private final List<Receiver> receivers = new CopyOnWriteArrayList<Receiver>();
+	private volatile UncaughtExceptionHandler formerDefaultHandler;
+
+	private UncaughtExceptionDispatcher() {}
+
+	/**
+	 * Installs the dispatcher as default handler, unless it is already installed.
+	 */
+	static void register(Receiver receiver) {
+		synchronized (LOCK) {
+			if (Thread.getDefaultUncaughtExceptionHandler() != INSTANCE) {
+				INSTANCE.formerDefaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+				Thread.setDefaultUncaughtExceptionHandler(INSTANCE);
+			}
+			INSTANCE.receivers.add(0, receiver);
+		}
+	}
+
+	/**
+	 * Removes the receivers which don't receive anymore and restores the former default handler, <br/>
+	 * if none is left.
+	 */
+	static void prune() {
+		synchronized (LOCK) {
+			for (Receiver currentReceiver : INSTANCE.receivers) {
+				if (!currentReceiver.isReceiving()) {
+					INSTANCE.receivers.remove(currentReceiver);
+				}
+			}
+			if (INSTANCE.receivers.isEmpty() && Thread.getDefaultUncaughtExceptionHandler() == INSTANCE) {
+				Thread.setDefaultUncaughtExceptionHandler(INSTANCE.formerDefaultHandler);
+				INSTANCE.formerDefaultHandler = null;
+			}
+		}
+	}
+
+	@Override
+	public void uncaughtException(Thread t, Throwable e) {
+		for (Receiver currentReceiver : receivers) {
+			if (currentReceiver.isAttributed(t)) {
+				currentReceiver.getExceptionRecorder().record(t, e);
+				return;
+			}
+		}
+		for (Receiver currentReceiver : receivers) {
+			if (currentReceiver.isCatchingUnattributed()) {
+				currentReceiver.getExceptionRecorder().record(t, e);
+				return;
+			}
+		}
+		UncaughtExceptionHandler former = formerDefaultHandler;
+		if (former != null) {
+			former.uncaughtException(t, e);
+		}
+	}
+
+}
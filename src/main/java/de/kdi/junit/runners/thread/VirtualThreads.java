@@ -0,0 +1,42 @@
+package de.kdi.junit.runners.thread;
+
+import java.lang.reflect.Method;
+
+/**
+ * Access to the virtual threads of java 21 and later by reflection, so the project stays compatible <br/>
+ * with older jvms where no thread is virtual.<br/>
+ * Virtual threads are neither part of {@link Thread#getAllStackTraces()} nor of any enumerable {@link ThreadGroup} <br/>
+ * and they are always daemon threads.
+ */
+public final class VirtualThreads {
+
+	private static final Method IS_VIRTUAL = findIsVirtual();
+
+	private VirtualThreads() {}
+
+	private static Method findIsVirtual() {
+		try {
+			return Thread.class.getMethod("isVirtual");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true, if the jvm supports virtual threads
+	 */
+	public static boolean isSupported() {
+		return IS_VIRTUAL != null;
+	}
+
+	public static boolean isVirtual(Thread thread) {
+		if (IS_VIRTUAL == null) {
+			return false;
+		}
+		try {
+			return ((Boolean) IS_VIRTUAL.invoke(thread)).booleanValue();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package de.kdi.junit.runners.timeout;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import de.kdi.junit.runners.exception.TestTimedOutException;
+
+/**
+ * Jvm scoped watchdog enforcing <i>&#064;Test(timeout)</i> on the test methods by a single daemon thread.<br/>
+ * The timeouts are kept in a hashed timer wheel of {@link #WHEEL_SIZE} buckets, each covering <br/>
+ * {@link #TICK_NANOS}. Scheduling and cancelling a timeout doesn't take a lock: new timeouts are queued <br/>
+ * and moved into their bucket by the watchdog thread, cancelled timeouts are removed when their bucket <br/>
+ * comes up. While no timeout is pending the thread parks without ticking.<br/>
+ * <br/>
+ * On expiry the stack of the watched thread is captured and the thread is interrupted.
+ */
+public final class TimeoutWatchdog implements Runnable {
+
+	static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	static final int WHEEL_SIZE = 512;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	private static final TimeoutWatchdog INSTANCE = new TimeoutWatchdog();
+
+	private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+	private final AtomicInteger pendingCount = new AtomicInteger();
+	private final Timeout[] buckets = new Timeout[WHEEL_SIZE];
+	private final long startNanos = System.nanoTime();
+	private long tick;
+	private volatile Thread watchdogThread;
+
+	private TimeoutWatchdog() {}
+
+	public static TimeoutWatchdog getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts the watchdog thread, if not done yet. Runners call this before the thread monitoring <br/>
+	 * starts, so the watchdog is not taken for a thread created by a test method.
+	 */
+	public void start() {
+		if (watchdogThread == null) {
+			synchronized (this) {
+				if (watchdogThread == null) {
+					ThreadGroup rootGroup = Thread.currentThread().getThreadGroup();
+					while (rootGroup.getParent() != null) {
+						rootGroup = rootGroup.getParent();
+					}
+					Thread thread = new Thread(rootGroup, this, "TimeoutWatchdog");
+					thread.setDaemon(true);
+					thread.start();
+					watchdogThread = thread;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the timeout, which has to be cancelled when the watched work is done
+	 */
+	public Timeout schedule(Thread thread, long timeoutMillis) {
+		start();
+		Timeout result = new Timeout(thread, timeoutMillis, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+		scheduledTimeouts.add(result);
+		if (pendingCount.getAndIncrement() == 0) {
+			LockSupport.unpark(watchdogThread);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of timeouts neither cancelled nor expired yet
+	 */
+	int getPendingCount() {
+		return pendingCount.get();
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			if (pendingCount.get() == 0) {
+				LockSupport.park(this);
+				tick = (System.nanoTime() - startNanos) / TICK_NANOS; // no tick while idle
+				continue;
+			}
+			long tickDeadline = startNanos + (tick + 1) * TICK_NANOS;
+			long remaining;
+			while ((remaining = tickDeadline - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, remaining);
+			}
+			transferScheduledTimeouts();
+			expireTimeouts((int) (tick & WHEEL_MASK));
+			tick++;
+		}
+	}
+
+	private void transferScheduledTimeouts() {
+		Timeout current;
+		while ((current = scheduledTimeouts.poll()) != null) {
+			if (current.state.get() != Timeout.PENDING) {
+				continue;
+			}
+			long deadlineTick = (current.deadlineNanos - startNanos + TICK_NANOS - 1) / TICK_NANOS;
+			long ticks = Math.max(deadlineTick, tick) - tick;
+			current.remainingRounds = ticks / WHEEL_SIZE;
+			int index = (int) ((tick + ticks) & WHEEL_MASK);
+			current.next = buckets[index];
+			buckets[index] = current;
+		}
+	}
+
+	/**
+	 * The deadline of a timeout without remaining rounds has passed, as it is rounded up to its tick.
+	 */
+	private void expireTimeouts(int index) {
+		Timeout previous = null;
+		Timeout current = buckets[index];
+		while (current != null) {
+			Timeout next = current.next;
+			boolean remove = true;
+			if (current.state.get() == Timeout.PENDING) {
+				if (current.remainingRounds > 0) {
+					current.remainingRounds--;
+					remove = false;
+				} else {
+					current.expire();
+				}
+			}
+			if (remove) {
+				if (previous == null) {
+					buckets[index] = next;
+				} else {
+					previous.next = next;
+				}
+				current.next = null;
+			} else {
+				previous = current;
+			}
+			current = next;
+		}
+	}
+
+	/**
+	 * A timeout of a single thread, see {@link TimeoutWatchdog#schedule(Thread, long)}.
+	 */
+	public final class Timeout {
+
+		static final int PENDING = 0;
+		static final int CANCELLED = 1;
+		static final int EXPIRING = 2;
+		static final int EXPIRED = 3;
+
+		private final Thread thread;
+		private final long timeoutMillis;
+		private final long deadlineNanos;
+		private final AtomicInteger state = new AtomicInteger(PENDING);
+		private volatile StackTraceElement[] stackSnapshot;
+		private long remainingRounds;
+		private Timeout next;
+
+		Timeout(Thread thread, long timeoutMillis, long deadlineNanos) {
+			this.thread = thread;
+			this.timeoutMillis = timeoutMillis;
+			this.deadlineNanos = deadlineNanos;
+		}
+
+		private void expire() {
+			if (state.compareAndSet(PENDING, EXPIRING)) {
+				pendingCount.decrementAndGet();
+				stackSnapshot = thread.getStackTrace();
+				thread.interrupt();
+				state.set(EXPIRED);
+			}
+		}
+
+		/**
+		 * Cancels the timeout. If it has expired already, waits until the watched thread has been <br/>
+		 * interrupted and clears the interrupt, when called by the watched thread.
+		 *
+		 * @return true if cancelled in time, false if the timeout has expired
+		 */
+		public boolean cancel() {
+			if (state.compareAndSet(PENDING, CANCELLED)) {
+				pendingCount.decrementAndGet();
+				return true;
+			}
+			while (state.get() == EXPIRING) {
+				Thread.yield();
+			}
+			if (state.get() == EXPIRED && Thread.currentThread() == thread) {
+				Thread.interrupted();
+			}
+			return state.get() == CANCELLED;
+		}
+
+		public boolean isExpired() {
+			return state.get() >= EXPIRING;
+		}
+
+		/**
+		 * @return the exception reporting the expiry, its stack trace is the stack of the watched thread at that time
+		 */
+		public TestTimedOutException newException() {
+			return new TestTimedOutException(thread.getName(), timeoutMillis, stackSnapshot);
+		}
+	}
+
+}
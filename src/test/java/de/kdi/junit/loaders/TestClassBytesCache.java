@@ -0,0 +1,198 @@
+package de.kdi.junit.loaders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestClassBytesCache {
+
+	private static final String FIXTURE_PATH = Fixture.class.getName().replace('.', '/') + ".class";
+	private static final String OTHER_FIXTURE_PATH = OtherFixture.class.getName().replace('.', '/') + ".class";
+
+	public static class Fixture {
+		public static int counter;
+	}
+
+	public static class OtherFixture {
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testFindsClassFilesOfDirectoriesAndJars() throws Exception {
+		URL directory = createDirectory();
+		URL jar = createJar();
+		ClassBytesCache cache = new ClassBytesCache(ClassBytesCache.DEFAULT_CAPACITY);
+		try {
+			URL[] urls = new URL[] { new File(folder.getRoot(), "missing").toURI().toURL(), jar, directory };
+			assertTrue(cache.supports(urls));
+			ClassBytesCache.ClassBytes fromJar = cache.find(urls, FIXTURE_PATH);
+			assertEquals(jar, fromJar.getUrl());
+			assertArrayEquals(readFixture(FIXTURE_PATH), toArray(fromJar.getBytes()));
+			ClassBytesCache.ClassBytes fromDirectory = cache.find(new URL[] { directory }, FIXTURE_PATH);
+			assertArrayEquals(readFixture(FIXTURE_PATH), toArray(fromDirectory.getBytes()));
+			assertNull(cache.find(urls, "de/kdi/junit/loaders/DoesNotExist.class"));
+			cache.find(urls, FIXTURE_PATH);
+			assertEquals(2, cache.getReads());
+			assertEquals(1, cache.getHits());
+			assertFalse(cache.supports(new URL[] { new URL("http://localhost/classes/") }));
+		} finally {
+			cache.clear();
+		}
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsedBytes() throws Exception {
+		URL[] urls = new URL[] { createJar() };
+		int fixtureSize = readFixture(FIXTURE_PATH).length;
+		ClassBytesCache cache = new ClassBytesCache(fixtureSize + readFixture(OTHER_FIXTURE_PATH).length - 1);
+		try {
+			cache.find(urls, FIXTURE_PATH);
+			cache.find(urls, OTHER_FIXTURE_PATH);
+			assertTrue(cache.getCachedBytes() < fixtureSize + readFixture(OTHER_FIXTURE_PATH).length);
+			cache.find(urls, OTHER_FIXTURE_PATH);
+			cache.find(urls, FIXTURE_PATH);
+			assertEquals(3, cache.getReads());
+			assertEquals(1, cache.getHits());
+		} finally {
+			cache.clear();
+		}
+	}
+
+	@Test
+	public void testRecompiledClassFilesAreReadAgain() throws Exception {
+		URL[] urls = new URL[] { createDirectory() };
+		File classFile = new File(folder.getRoot(), "classes/" + FIXTURE_PATH);
+		ClassBytesCache cache = new ClassBytesCache(ClassBytesCache.DEFAULT_CAPACITY);
+		try {
+			cache.find(urls, FIXTURE_PATH);
+			Files.write(classFile.toPath(), readFixture(OTHER_FIXTURE_PATH));
+			assertTrue(classFile.setLastModified(classFile.lastModified() + 2000));
+			assertArrayEquals(readFixture(OTHER_FIXTURE_PATH), toArray(cache.find(urls, FIXTURE_PATH).getBytes()));
+			assertEquals(2, cache.getReads());
+			assertEquals(0, cache.getHits());
+		} finally {
+			cache.clear();
+		}
+	}
+
+	@Test
+	public void testReadsTheVersionedEntriesOfMultiReleaseJars() throws Exception {
+		Assume.assumeTrue(ClassBytesCache.supportsMultiRelease());
+		File jar = folder.newFile("multi-release.jar");
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(jar), manifest);
+		try {
+			output.putNextEntry(new JarEntry(FIXTURE_PATH));
+			output.write(readFixture(FIXTURE_PATH));
+			output.closeEntry();
+			output.putNextEntry(new JarEntry("META-INF/versions/9/" + FIXTURE_PATH));
+			output.write(readFixture(OTHER_FIXTURE_PATH));
+			output.closeEntry();
+		} finally {
+			output.close();
+		}
+		ClassBytesCache cache = new ClassBytesCache(ClassBytesCache.DEFAULT_CAPACITY);
+		try {
+			URL[] urls = new URL[] { jar.toURI().toURL() };
+			assertArrayEquals(readFixture(OTHER_FIXTURE_PATH), toArray(cache.find(urls, FIXTURE_PATH).getBytes()));
+		} finally {
+			cache.clear();
+		}
+	}
+
+	@Test
+	public void testClassLoadersShareTheBytes() throws Exception {
+		URL[] urls = new URL[] { createJar() };
+		ClassBytesCache shared = ClassBytesCache.getShared();
+		long formerReads = shared.getReads();
+		long formerHits = shared.getHits();
+		IsolatingClassLoader loader1 = new IsolatingClassLoader(urls, getClass().getClassLoader());
+		IsolatingClassLoader loader2 = new IsolatingClassLoader(urls, getClass().getClassLoader());
+		try {
+			Class<?> class1 = loader1.loadClass(Fixture.class.getName());
+			Class<?> class2 = loader2.loadClass(Fixture.class.getName());
+			assertNotSame(class1, class2);
+			assertNotSame(Fixture.class, class1);
+			assertEquals(urls[0], class1.getProtectionDomain().getCodeSource().getLocation());
+			assertEquals(Fixture.class.getPackage().getName(), class1.getPackage().getName());
+			assertEquals(formerReads + 1, shared.getReads());
+			assertEquals(formerHits + 1, shared.getHits());
+		} finally {
+			loader1.close();
+			loader2.close();
+		}
+	}
+
+	private URL createDirectory() throws IOException {
+		File directory = folder.newFolder("classes");
+		for (String currentPath : new String[] { FIXTURE_PATH, OTHER_FIXTURE_PATH }) {
+			File classFile = new File(directory, currentPath);
+			classFile.getParentFile().mkdirs();
+			Files.write(classFile.toPath(), readFixture(currentPath));
+		}
+		return directory.toURI().toURL();
+	}
+
+	private URL createJar() throws IOException {
+		File jar = folder.newFile("fixtures.jar");
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			for (String currentPath : new String[] { FIXTURE_PATH, OTHER_FIXTURE_PATH }) {
+				output.putNextEntry(new JarEntry(currentPath));
+				output.write(readFixture(currentPath));
+				output.closeEntry();
+			}
+		} finally {
+			output.close();
+		}
+		return jar.toURI().toURL();
+	}
+
+	private static byte[] readFixture(String path) throws IOException {
+		InputStream input = TestClassBytesCache.class.getClassLoader().getResourceAsStream(path);
+		try {
+			byte[] buffer = new byte[64 * 1024];
+			int length = 0;
+			int count;
+			while ((count = input.read(buffer, length, buffer.length - length)) > 0) {
+				length += count;
+			}
+			byte[] result = new byte[length];
+			System.arraycopy(buffer, 0, result, 0, length);
+			return result;
+		} finally {
+			input.close();
+		}
+	}
+
+	private static byte[] toArray(ByteBuffer buffer) {
+		byte[] result = new byte[buffer.remaining()];
+		buffer.get(result);
+		return result;
+	}
+
+}
@@ -3,13 +3,27 @@ package de.kdi.junit.loaders;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class TestClassPathExtractor {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testSimpleClassPathExtraction() throws Exception {
 		String fixture = createFixture();
@@ -30,4 +44,88 @@ public class TestClassPathExtractor {
 	public void testCPAccessorConstant() throws Exception {
 		assertEquals("java.class.path", ClassPathExtractor.JAVA_CLASS_PATH_PROP_ACCESSOR);
 	}
+
+	@Test
+	public void testDropsMissingAndDuplicateEntries() throws Exception {
+		File directory = folder.newFolder("classes");
+		String classPath = join(directory.getPath(), new File(folder.getRoot(), "missing").getPath(),
+				new File(directory, "../classes").getPath(), directory.getPath());
+		Collection<URL> result = new ClassPathExtractor(classPath).createUrlClassPath();
+		assertEquals(Arrays.asList(directory.getCanonicalFile().toURI().toURL()), new ArrayList<URL>(result));
+	}
+
+	@Test
+	public void testExpandsWildcardsAndManifestClassPath() throws Exception {
+		File libraries = folder.newFolder("lib");
+		File other = createJar(new File(libraries, "b.jar"), null);
+		File nested = createJar(folder.newFile("nested.jar"), null);
+		File main = createJar(new File(libraries, "a.jar"), "../nested.jar b.jar missing.jar");
+		new File(libraries, "readme.txt").createNewFile();
+		Collection<URL> result = new ClassPathExtractor(libraries.getPath() + File.separator + ClassPathExtractor.WILDCARD)
+				.createUrlClassPath();
+		assertEquals(Arrays.asList(toUrl(main), toUrl(nested), toUrl(other)), new ArrayList<URL>(result));
+	}
+
+	@Test
+	public void testCachedEntriesAreResolvedAgainWhenModified() throws Exception {
+		File jar = createJar(folder.newFile("modified.jar"), null);
+		ClassPathExtractor.ResolvedEntry first = ClassPathExtractor.resolve(jar.getPath());
+		assertSame(first, ClassPathExtractor.resolve(jar.getPath()));
+		File nested = createJar(folder.newFile("added.jar"), null);
+		createJar(jar, nested.getName());
+		jar.setLastModified(first.getCanonicalFile().lastModified() + 2000);
+		ClassPathExtractor.ResolvedEntry second = ClassPathExtractor.resolve(jar.getPath());
+		assertNotSame(first, second);
+		assertEquals(Arrays.asList(nested.getCanonicalPath()), second.getManifestClassPath());
+	}
+
+	@Test
+	public void testIteratesLazily() throws Exception {
+		File directory = folder.newFolder("lazy");
+		File appearing = new File(folder.getRoot(), "appearing");
+		Iterator<URL> iterator = new ClassPathExtractor(join(directory.getPath(), appearing.getPath())).iterateUrlClassPath().iterator();
+		assertEquals(toUrl(directory), iterator.next());
+		appearing.mkdir();
+		assertEquals(toUrl(appearing), iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testResolvesLargeClassPathsInParallel() throws Exception {
+		List<String> entries = new ArrayList<String>();
+		List<URL> expected = new ArrayList<URL>();
+		for (int i = 0; i < 4 * ClassPathExtractor.PARALLEL_THRESHOLD; i++) {
+			File directory = folder.newFolder("entry" + i);
+			entries.add(directory.getPath());
+			expected.add(toUrl(directory));
+		}
+		String classPath = join(entries.toArray(new String[entries.size()]));
+		assertEquals(expected, new ArrayList<URL>(new ClassPathExtractor(classPath).createUrlClassPath()));
+		assertEquals(0, ClassPathExtractor.resolveInParallel(entries)); // all cached
+	}
+
+	private static String join(String... entries) {
+		StringBuilder result = new StringBuilder();
+		for (String currentEntry : entries) {
+			if (result.length() > 0) {
+				result.append(ClassPathExtractor.CLASSPATH_ENTRY_SEPARATOR);
+			}
+			result.append(currentEntry);
+		}
+		return result.toString();
+	}
+
+	private static URL toUrl(File file) throws IOException {
+		return file.getCanonicalFile().toURI().toURL();
+	}
+
+	private static File createJar(File jar, String manifestClassPath) throws IOException {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		if (manifestClassPath != null) {
+			manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, manifestClassPath);
+		}
+		new JarOutputStream(new FileOutputStream(jar), manifest).close();
+		return jar;
+	}
 }
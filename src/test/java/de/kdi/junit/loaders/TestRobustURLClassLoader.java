@@ -0,0 +1,76 @@
+package de.kdi.junit.loaders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestRobustURLClassLoader {
+
+	private static final String MISSING_CLASS = "de.kdi.junit.loaders.DoesNotExist";
+
+	@Test
+	public void testMissesAreCachedAndCounted() throws Exception {
+		RobustURLClassLoader loader = new RobustURLClassLoader(new URL[0]);
+		try {
+			assertFalse(loader.isCachedMiss(MISSING_CLASS));
+			assertSame(Object.class, loader.loadClass(MISSING_CLASS));
+			assertTrue(loader.isCachedMiss(MISSING_CLASS));
+			assertSame(Object.class, loader.loadClass(MISSING_CLASS));
+			assertEquals(2, loader.getMissCount());
+			assertSame(String.class, loader.loadClass("java.lang.String"));
+			assertEquals(2, loader.getMissCount());
+		} finally {
+			loader.close();
+		}
+	}
+
+	@Test
+	public void testMissCacheIsBounded() throws Exception {
+		RobustURLClassLoader loader = new RobustURLClassLoader(new URL[0]);
+		try {
+			for (int i = 0; i <= RobustURLClassLoader.MAX_CACHED_MISSES; i++) {
+				loader.loadClass(MISSING_CLASS + i);
+			}
+			assertFalse(loader.isCachedMiss(MISSING_CLASS + 0));
+			assertTrue(loader.isCachedMiss(MISSING_CLASS + RobustURLClassLoader.MAX_CACHED_MISSES));
+			assertEquals(RobustURLClassLoader.MAX_CACHED_MISSES + 1, loader.getMissCount());
+		} finally {
+			loader.close();
+		}
+	}
+
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		final RobustURLClassLoader loader = new RobustURLClassLoader(new URL[0]);
+		final int lookupsPerThread = 1000;
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			Thread thread = new Thread() {
+				public void run() {
+					try {
+						for (int j = 0; j < lookupsPerThread; j++) {
+							assertSame(Object.class, loader.loadClass(MISSING_CLASS + (j % 10)));
+						}
+					} catch (ClassNotFoundException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(4 * lookupsPerThread, loader.getMissCount());
+		loader.close();
+	}
+
+}
@@ -100,7 +100,7 @@ public class TestAsyncTestRunner {
 	}
 	
 	@ThreadShutdownTimeout(10000)
-	@Test(expected=AsynchronousTestRunnerException.class)  // will be thrown if one or more threads are still alive after the invocation of the test method 
+	@Test(expected=IllegalArgumentException.class)  // the thread finishes within the shutdown timeout, the exception of the thread left behind by testMultipleThreadsAndDuration is not attributed to this test
 	public void testMultipleThreadsAndDurationWithTSTAnnotation() throws Exception {
 		new Thread(){
 			@Override
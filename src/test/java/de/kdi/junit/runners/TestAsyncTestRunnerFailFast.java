@@ -0,0 +1,26 @@
+package de.kdi.junit.runners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class TestAsyncTestRunnerFailFast {
+
+	@Test
+	public void testFirstExceptionIsReportedAtOnce() throws Exception {
+		long start = System.nanoTime();
+		Result result = new JUnitCore().run(TestAsyncTestRunnerFailFastFixture.class);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+		assertEquals(1, result.getFailureCount());
+		assertEquals("failing worker", result.getFailures().get(0).getException().getMessage());
+		assertTrue(TestAsyncTestRunnerFailFastFixture.sleeperInterrupted);
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+}
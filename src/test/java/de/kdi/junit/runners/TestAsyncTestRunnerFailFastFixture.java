@@ -0,0 +1,33 @@
+package de.kdi.junit.runners;
+
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.annotation.FailFast;
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+
+@FailFast
+@RunWith(AsyncTestRunner.class)
+public class TestAsyncTestRunnerFailFastFixture {
+
+	static volatile boolean sleeperInterrupted;
+
+	@ThreadShutdownTimeout(30000)
+	public void testWorkerFailsWhileOtherWorkerSleeps() {
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(30000);
+				} catch (InterruptedException e) {
+					sleeperInterrupted = true;
+				}
+			}
+		}.start();
+		new Thread() {
+			@Override
+			public void run() {
+				throw new IllegalStateException("failing worker");
+			}
+		}.start();
+	}
+}
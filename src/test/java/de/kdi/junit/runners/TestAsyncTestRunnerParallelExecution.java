@@ -0,0 +1,18 @@
+package de.kdi.junit.runners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class TestAsyncTestRunnerParallelExecution {
+
+	@Test
+	public void testParallelExecutionWithIsolatedExceptions() throws Exception {
+		Result result = new JUnitCore().run(TestAsyncTestRunnerParallelExecutionFixture.class);
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+		assertTrue(result.getRunCount() >= 3);
+	}
+}
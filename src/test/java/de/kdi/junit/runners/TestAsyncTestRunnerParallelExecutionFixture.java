@@ -0,0 +1,70 @@
+package de.kdi.junit.runners;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.annotation.ParallelExecution;
+
+@ParallelExecution(3)
+@RunWith(AsyncTestRunner.class)
+public class TestAsyncTestRunnerParallelExecutionFixture {
+
+	private static CountDownLatch ALL_TESTS_STARTED;
+
+	@BeforeClass
+	public static void createLatch() {
+		ALL_TESTS_STARTED = new CountDownLatch(3);
+	}
+
+	private static void awaitOtherTests() throws InterruptedException {
+		ALL_TESTS_STARTED.countDown();
+		assertTrue("test methods are not running in parallel", ALL_TESTS_STARTED.await(5, TimeUnit.SECONDS));
+	}
+
+	private static void startThreadThrowing(final RuntimeException exception) {
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(200);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				throw exception;
+			}
+		}.start();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testA() throws Exception {
+		startThreadThrowing(new IllegalStateException("belongs to testA"));
+		awaitOtherTests();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testB() throws Exception {
+		startThreadThrowing(new IllegalArgumentException("belongs to testB"));
+		awaitOtherTests();
+	}
+
+	@Test
+	public void testC() throws Exception {
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(200);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}.start();
+		awaitOtherTests();
+	}
+}
@@ -0,0 +1,92 @@
+package de.kdi.junit.runners;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+import de.kdi.junit.runners.exception.TasksStillRunningException;
+import de.kdi.junit.runners.quiescence.Quiescence;
+
+@RunWith(AsyncTestRunner.class)
+public class TestAsyncTestRunnerQuiescence {
+
+	private static volatile boolean COMMON_POOL_TASK_FINISHED;
+
+	private final ExecutorService daemonPool = Executors.newFixedThreadPool(1, new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread result = new Thread(r);
+			result.setDaemon(true);
+			return result;
+		}
+	});
+
+	@After
+	public void teardown() {
+		daemonPool.shutdownNow();
+	}
+
+	private static Runnable sleepAndThrow(final long millis, final RuntimeException exception) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(millis);
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (exception != null) {
+					throw exception;
+				}
+			}
+		};
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailedFutureIsReported() throws Exception {
+		Quiescence.register(CompletableFuture.runAsync(sleepAndThrow(100, new IllegalStateException("swallowed by the future"))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMonitoredExecutorReportsSwallowedException() throws Exception {
+		ExecutorService monitored = Quiescence.monitor(daemonPool);
+		monitored.submit(sleepAndThrow(100, new IllegalArgumentException("swallowed by the future")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegisteredMonitoredFutureIsReportedOnce() throws Exception {
+		ExecutorService monitored = Quiescence.monitor(daemonPool);
+		Quiescence.register(monitored.submit(sleepAndThrow(100, new IllegalArgumentException("recorded by the executor"))));
+	}
+
+	@ThreadShutdownTimeout(200)
+	@Test(expected = TasksStillRunningException.class)
+	public void testBusyExecutorFieldIsReported() throws Exception {
+		daemonPool.execute(sleepAndThrow(5000, null));
+	}
+
+	@Test
+	public void testCommonPoolIsAwaited() throws Exception {
+		ForkJoinPool.commonPool().execute(new Runnable() {
+			@Override
+			public void run() {
+				sleepAndThrow(200, null).run();
+				COMMON_POOL_TASK_FINISHED = true;
+			}
+		});
+	}
+
+	@Test
+	public void testCommonPoolIsAwaitedWasFinished() throws Exception {
+		assertTrue(COMMON_POOL_TASK_FINISHED);
+	}
+}
@@ -0,0 +1,42 @@
+package de.kdi.junit.runners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class TestIsolatedSuite {
+
+	@Test
+	public void testClassesRunIsolatedAndInParallel() throws Exception {
+		IsolatedSuite suite = new IsolatedSuite(TestIsolatedSuiteFixture.class);
+		assertEquals(3, suite.getDescription().getChildren().size());
+		assertEquals(3, suite.testCount());
+		long start = System.nanoTime();
+		Result result = new JUnitCore().run(suite);
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+		assertEquals(3, result.getRunCount());
+		assertEquals(0, TestIsolatedSuiteStaticStateFixture.counter);
+		assertTrue("took " + millis + "ms", millis < 850);
+	}
+
+	@Test
+	public void testOnlyTheDirectoriesOfTheTestsAreIsolated() throws Exception {
+		List<URL> isolatedUrls = Arrays.asList(IsolatedSuite.getIsolatedClassPath());
+		assertFalse(isolatedUrls.contains(IsolatedSuite.class.getProtectionDomain().getCodeSource().getLocation()));
+		assertTrue(isolatedUrls.contains(getClass().getProtectionDomain().getCodeSource().getLocation()));
+		for (URL currentUrl : isolatedUrls) {
+			assertFalse(currentUrl.getPath().endsWith(".jar"));
+		}
+	}
+
+}
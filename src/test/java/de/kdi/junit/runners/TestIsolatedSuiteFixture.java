@@ -0,0 +1,12 @@
+package de.kdi.junit.runners;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite.SuiteClasses;
+
+import de.kdi.junit.runners.annotation.ParallelExecution;
+
+@RunWith(IsolatedSuite.class)
+@SuiteClasses({ TestIsolatedSuiteStaticStateFixture.class, TestIsolatedSuiteStaticStateFixture.class,
+		TestIsolatedSuiteStaticStateFixture.class })
+@ParallelExecution(3)
+public class TestIsolatedSuiteFixture {}
@@ -0,0 +1,24 @@
+package de.kdi.junit.runners;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.runner.RunWith;
+
+@RunWith(AsyncTestRunner.class)
+public class TestIsolatedSuiteStaticStateFixture {
+
+	static int counter;
+
+	public void testStaticStateIsNotShared() throws Exception {
+		assertEquals(1, ++counter);
+		new Thread() {
+			public void run() {
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}.start();
+	}
+}
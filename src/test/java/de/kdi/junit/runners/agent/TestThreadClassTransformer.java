@@ -0,0 +1,70 @@
+package de.kdi.junit.runners.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class TestThreadClassTransformer {
+
+	@Test
+	public void testOtherClassesAreNotTransformed() throws Exception {
+		assertNull(new ThreadClassTransformer().transform(null, "java/lang/Object", null, null, new byte[0]));
+	}
+
+	@Test
+	public void testThreadClassCallsHooks() throws Exception {
+		byte[] transformed = new ThreadClassTransformer().transform(null, ThreadClassTransformer.THREAD_CLASS_NAME, null, null,
+				readThreadClass());
+		Map<String, Integer> hookCalls = countHookCalls(transformed);
+		assertEquals(Integer.valueOf(1), hookCalls.get("start" + ThreadClassTransformer.STARTED_HOOK));
+		Integer constructorHookCalls = hookCalls.get("<init>" + ThreadClassTransformer.CREATED_HOOK);
+		assertEquals(true, constructorHookCalls != null && constructorHookCalls.intValue() > 0);
+	}
+
+	private static byte[] readThreadClass() throws Exception {
+		InputStream in = ClassLoader.getSystemResourceAsStream("java/lang/Thread.class");
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static Map<String, Integer> countHookCalls(byte[] classBytes) {
+		final Map<String, Integer> result = new HashMap<String, Integer>();
+		new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+
+			@Override
+			public MethodVisitor visitMethod(int access, final String methodName, String descriptor, String signature,
+					String[] exceptions) {
+				return new MethodVisitor(Opcodes.ASM9) {
+
+					@Override
+					public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean isInterface) {
+						if (ThreadClassTransformer.HOOKS_CLASS_NAME.equals(owner)) {
+							String key = methodName + name;
+							Integer count = result.get(key);
+							result.put(key, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+						}
+					}
+				};
+			}
+		}, 0);
+		return result;
+	}
+}
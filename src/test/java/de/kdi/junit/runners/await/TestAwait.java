@@ -0,0 +1,122 @@
+package de.kdi.junit.runners.await;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+import de.kdi.junit.runners.exception.AwaitTimeoutException;
+import de.kdi.junit.runners.metrics.AsyncTestMetrics;
+
+public class TestAwait {
+
+	static final Condition NEVER = new Condition() {
+		@Override
+		public boolean isSatisfied() {
+			return false;
+		}
+	};
+
+	@Test
+	public void testSignalWakesWaiter() throws Exception {
+		final boolean[] done = new boolean[1];
+		final CountDownLatch waiting = new CountDownLatch(1);
+		Thread signaller = new Thread() {
+			public void run() {
+				try {
+					waiting.await();
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					return;
+				}
+				synchronized (done) {
+					done[0] = true;
+				}
+				Await.signal();
+			}
+		};
+		signaller.start();
+		waiting.countDown();
+		long nanos = Await.until(new Condition() {
+			@Override
+			public boolean isSatisfied() {
+				synchronized (done) {
+					return done[0];
+				}
+			}
+		}, 5000);
+		assertTrue(nanos > 0);
+		assertTrue(nanos < TimeUnit.SECONDS.toNanos(5));
+		signaller.join();
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		long start = System.nanoTime();
+		try {
+			Await.until(NEVER, 50);
+			fail();
+		} catch (AwaitTimeoutException e) {
+			assertEquals(50, e.getTimeoutMillis());
+		}
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+	}
+
+	@Test
+	public void testFutureAndLatch() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		FutureTask<String> future = new FutureTask<String>(new Callable<String>() {
+			@Override
+			public String call() {
+				latch.countDown();
+				return "result";
+			}
+		});
+		new Thread(future).start();
+		assertEquals("result", Await.future(future, 5000));
+		assertTrue(Await.latch(latch, 5000) >= 0);
+		try {
+			Await.future(new CompletableFuture<Object>(), 10);
+			fail();
+		} catch (AwaitTimeoutException e) {
+			assertEquals(10, e.getTimeoutMillis());
+		}
+	}
+
+	private static AsyncTestMetrics getMetrics(String methodName) {
+		return AsyncTestMetrics.of(Description.createTestDescription(TestAwaitFixture.class, methodName));
+	}
+
+	@Test
+	public void testAwaitsOfTestMethods() throws Exception {
+		Result result = new JUnitCore().run(TestAwaitFixture.class);
+		assertEquals(result.getFailures().toString(), 1, result.getFailureCount());
+		Failure failure = result.getFailures().get(0);
+		assertEquals("awaitWithDefaultBudget", failure.getDescription().getMethodName());
+		Throwable timeout = failure.getException();
+		assertTrue(String.valueOf(timeout), timeout instanceof AwaitTimeoutException);
+		assertEquals(200, ((AwaitTimeoutException) timeout).getTimeoutMillis());
+		AwaitRecord timedOut = getMetrics("awaitWithDefaultBudget").getAwaits().get(0);
+		assertFalse(timedOut.isReached());
+		assertTrue(timedOut.getNanos() >= TimeUnit.MILLISECONDS.toNanos(200));
+
+		AsyncTestMetrics idleMetrics = getMetrics("awaitIdleThreads");
+		assertNotNull(idleMetrics);
+		assertEquals(1, idleMetrics.getAwaits().size());
+		assertTrue(idleMetrics.getAwaits().get(0).isReached());
+		assertTrue(idleMetrics.toJson().contains("\"awaits\":[{\"awaited\":\"idle threads\""));
+	}
+}
@@ -0,0 +1,32 @@
+package de.kdi.junit.runners.await;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+
+@RunWith(AsyncTestRunner.class)
+public class TestAwaitFixture {
+
+	@Test
+	@ThreadShutdownTimeout(200)
+	public void awaitWithDefaultBudget() throws Exception {
+		Await.until(TestAwait.NEVER);
+	}
+
+	@Test
+	public void awaitIdleThreads() throws Exception {
+		new Thread() {
+			public void run() {
+				long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+				while (System.nanoTime() < end) {
+					// busy
+				}
+			}
+		}.start();
+		Await.threadsIdle();
+	}
+}
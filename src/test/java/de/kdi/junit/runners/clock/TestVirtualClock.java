@@ -0,0 +1,69 @@
+package de.kdi.junit.runners.clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+import de.kdi.junit.runners.exception.ThreadsStillAliveException;
+import de.kdi.junit.runners.thread.CaptureWindow;
+import de.kdi.junit.runners.thread.ThreadMonitoringService;
+
+public class TestVirtualClock {
+
+	private static Result runAlone(String methodName) throws Exception {
+		return new JUnitCore().run(Request.method(TestVirtualClockFixture.class, methodName));
+	}
+
+	@Test
+	public void testSleepsAdvanceInstantly() throws Exception {
+		Result result = runAlone("testSleepingThreads");
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+		assertTrue(TestVirtualClockFixture.ELAPSED_VIRTUAL_MILLIS.get() >= 5000);
+		assertTrue("took " + result.getRunTime() + "ms", result.getRunTime() < 2500);
+	}
+
+	@Test
+	public void testQuiescenceWaitAdvancesInstantly() throws Exception {
+		TestVirtualClockFixture.ELAPSED_VIRTUAL_MILLIS.set(0);
+		Result result = runAlone("testSleepingExecutorTask");
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+		assertTrue(TestVirtualClockFixture.ELAPSED_VIRTUAL_MILLIS.get() >= 5000);
+		assertTrue("took " + result.getRunTime() + "ms", result.getRunTime() < 2500);
+	}
+
+	@Test
+	public void testShutdownTimeoutAdvancesInstantly() throws Exception {
+		Result result = runAlone("testThreadBlockedForever");
+		assertEquals(1, result.getFailureCount());
+		ThreadsStillAliveException exception = (ThreadsStillAliveException) result.getFailures().get(0).getException();
+		for (Thread currentThread : exception.getStillAliveThreads()) {
+			currentThread.interrupt();
+		}
+		assertTrue("took " + result.getRunTime() + "ms", result.getRunTime() < 2500);
+	}
+
+	@Test
+	public void testManualAdvance() throws Exception {
+		CaptureWindow window = ThreadMonitoringService.getInstance().newCaptureWindow();
+		VirtualClock clock = new VirtualClock(window);
+		clock.open();
+		try {
+			assertTrue(TestClock.isVirtual());
+			long before = TestClock.nanoTime();
+			TestClock.advance(1, TimeUnit.HOURS);
+			assertTrue(TestClock.nanoTime() - before >= TimeUnit.HOURS.toNanos(1));
+			assertTrue(TestClock.clock().millis() - System.currentTimeMillis() >= TimeUnit.HOURS.toMillis(1) - 1000);
+		} finally {
+			clock.close();
+		}
+		assertFalse(TestClock.isVirtual());
+	}
+
+}
@@ -0,0 +1,69 @@
+package de.kdi.junit.runners.clock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+import de.kdi.junit.runners.annotation.VirtualTime;
+
+@VirtualTime
+@RunWith(AsyncTestRunner.class)
+public class TestVirtualClockFixture {
+
+	static final AtomicLong ELAPSED_VIRTUAL_MILLIS = new AtomicLong();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(1);
+
+	@ThreadShutdownTimeout(10000)
+	public void testSleepingThreads() throws Exception {
+		final long start = TestClock.currentTimeMillis();
+		for (int i = 0; i < 3; i++) {
+			new Thread() {
+				public void run() {
+					try {
+						for (int retry = 0; retry < 5; retry++) {
+							TestClock.sleep(1000);
+						}
+						ELAPSED_VIRTUAL_MILLIS.set(TestClock.currentTimeMillis() - start);
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}.start();
+		}
+	}
+
+	@ThreadShutdownTimeout(10000)
+	public void testSleepingExecutorTask() throws Exception {
+		final long start = TestClock.currentTimeMillis();
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					TestClock.sleep(5000);
+					ELAPSED_VIRTUAL_MILLIS.set(TestClock.currentTimeMillis() - start);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		executor.shutdown();
+	}
+
+	@ThreadShutdownTimeout(10000)
+	public void testThreadBlockedForever() throws Exception {
+		new Thread() {
+			public void run() {
+				try {
+					new CountDownLatch(1).await();
+				} catch (InterruptedException e) {
+					// finished by the teardown of the test
+				}
+			}
+		}.start();
+	}
+}
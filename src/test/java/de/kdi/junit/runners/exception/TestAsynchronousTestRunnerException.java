@@ -0,0 +1,76 @@
+package de.kdi.junit.runners.exception;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.kdi.junit.runners.thread.RecordedException;
+
+public class TestAsynchronousTestRunnerException {
+
+	private static RuntimeException failAt(int site, String message) {
+		switch (site) {
+			case 0:
+				return new NullPointerException(message);
+			default:
+				return new IllegalStateException(message);
+		}
+	}
+
+	private static AsynchronousTestRunnerException createFixture() {
+		List<RecordedException> recordedExceptions = new ArrayList<RecordedException>();
+		for (int i = 0; i < 5000; i++) {
+			recordedExceptions.add(new RecordedException(i, 100 + i, "worker-" + i, failAt(0, "worker " + i)));
+		}
+		recordedExceptions.add(new RecordedException(5000, 99, "other", failAt(1, "other")));
+		return new AsynchronousTestRunnerException(recordedExceptions, 3);
+	}
+
+	@Test
+	public void testExceptionsAreGroupedByStack() throws Exception {
+		AsynchronousTestRunnerException testable = createFixture();
+		List<FailureGroup> groups = testable.getFailureGroups();
+		assertEquals(2, groups.size());
+		assertEquals(5000, groups.get(0).getCount());
+		assertEquals(100, groups.get(0).getRepresentative().getThreadId());
+		assertEquals(1, groups.get(1).getCount());
+		assertEquals(5001, testable.getRecordedExceptions().size());
+	}
+
+	@Test
+	public void testMessageIsRenderedOnceWithOneTracePerGroup() throws Exception {
+		AsynchronousTestRunnerException testable = createFixture();
+		String message = testable.getMessage();
+		assertSame(message, testable.getMessage());
+		assertTrue(message, message.startsWith("5001 exceptions recorded with 2 distinct stack traces\n"));
+		assertTrue(message, message.contains("5000 x exception recoreded in Thread with ID = 100, 101"));
+		assertTrue(message, message.contains("109 and 4990 more"));
+		assertTrue(message, message.contains("3 further exceptions have been counted"));
+		assertTrue("message of " + message.length() + " chars", message.length() < 10000);
+	}
+
+	@Test
+	public void testMessageSurvivesSerialization() throws Exception {
+		AsynchronousTestRunnerException testable = createFixture();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream output = new ObjectOutputStream(bytes);
+		output.writeObject(testable);
+		output.close();
+		AsynchronousTestRunnerException deserialized = (AsynchronousTestRunnerException) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(testable.getMessage(), deserialized.getMessage());
+		assertTrue(deserialized.getRecordedExceptions().isEmpty());
+		assertTrue(deserialized.getFailureGroups().isEmpty());
+		assertEquals(3, deserialized.getDroppedCount());
+	}
+
+}
@@ -0,0 +1,144 @@
+package de.kdi.junit.runners.leak;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import de.kdi.junit.runners.thread.AgentThreadMonitor;
+
+public class TestThreadReclaimer {
+
+	private static Thread startSleeper() {
+		Thread result = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(30000);
+				} catch (InterruptedException e) {
+					// reclaimed
+				}
+			}
+		};
+		result.start();
+		return result;
+	}
+
+	@Test
+	public void testInterruptedThreadsTerminate() throws Exception {
+		Thread sleeper = startSleeper();
+		List<Thread> quarantined = ThreadReclaimer.getInstance().reclaim(Arrays.asList(sleeper), new AgentThreadMonitor(),
+				ReclamationPolicy.INTERRUPT, 1000);
+		assertTrue(quarantined.isEmpty());
+		assertFalse(sleeper.isAlive());
+	}
+
+	@Test
+	public void testThreadsIgnoringTheInterruptionAreQuarantined() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		Thread stubborn = new Thread() {
+			@Override
+			public void run() {
+				while (true) {
+					try {
+						release.await();
+						return;
+					} catch (InterruptedException e) {
+						// ignored on purpose
+					}
+				}
+			}
+		};
+		stubborn.start();
+		int formerQuarantinedCount = ThreadReclaimer.getInstance().getQuarantinedCount();
+		List<Thread> quarantined = ThreadReclaimer.getInstance().reclaim(Arrays.asList(stubborn), new AgentThreadMonitor(),
+				ReclamationPolicy.INTERRUPT, 50);
+		assertEquals(Arrays.asList(stubborn), quarantined);
+		assertEquals(formerQuarantinedCount + 1, ThreadReclaimer.getInstance().getQuarantinedCount());
+		release.countDown();
+		stubborn.join();
+		assertEquals(formerQuarantinedCount, ThreadReclaimer.getInstance().getQuarantinedCount());
+	}
+
+	@Test
+	public void testDaemonThreadsAreLeftAlone() throws Exception {
+		Thread sleeper = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(30000);
+				} catch (InterruptedException e) {
+					// finished by the test
+				}
+			}
+		};
+		sleeper.setDaemon(true);
+		sleeper.start();
+		try {
+			ThreadReclaimer.getInstance().reclaim(Arrays.asList(sleeper), new AgentThreadMonitor(), ReclamationPolicy.INTERRUPT, 50);
+			assertTrue(sleeper.isAlive());
+		} finally {
+			sleeper.interrupt();
+			sleeper.join();
+		}
+	}
+
+	@Test
+	public void testPolicyNoneLeavesThreadsAlone() throws Exception {
+		Thread sleeper = startSleeper();
+		try {
+			ThreadReclaimer.getInstance().reclaim(Arrays.asList(sleeper), new AgentThreadMonitor(), ReclamationPolicy.NONE, 1000);
+			assertTrue(sleeper.isAlive());
+		} finally {
+			sleeper.interrupt();
+			sleeper.join();
+		}
+	}
+
+	@Test
+	public void testPolicyIsReadFromSystemProperty() throws Exception {
+		assertEquals(ReclamationPolicy.NONE, ReclamationPolicy.current());
+		System.setProperty(ReclamationPolicy.PROPERTY, "interrupt");
+		try {
+			assertEquals(ReclamationPolicy.INTERRUPT, ReclamationPolicy.current());
+		} finally {
+			System.clearProperty(ReclamationPolicy.PROPERTY);
+		}
+	}
+
+	@Test
+	public void testUnknownPolicyFallsBackToNone() throws Exception {
+		System.setProperty(ReclamationPolicy.PROPERTY, "kill");
+		try {
+			assertEquals(ReclamationPolicy.NONE, ReclamationPolicy.current());
+		} finally {
+			System.clearProperty(ReclamationPolicy.PROPERTY);
+		}
+	}
+
+	@Test
+	public void testSuiteGrowthIsTracked() throws Exception {
+		SuiteResourceTracker tracker = SuiteResourceTracker.getInstance();
+		tracker.classStarted();
+		assertNotNull(tracker.getBaseline());
+		tracker.classFinished(getClass()); // the sample to compare with
+		Thread sleeper = startSleeper();
+		try {
+			LeakReport leak = tracker.classFinished(getClass());
+			assertNotNull(leak);
+			assertTrue(leak.getLeftThreads() >= 1);
+			assertTrue(tracker.getLeakReports().contains(leak));
+			assertTrue(tracker.getLatest().getLiveThreads() > 0);
+		} finally {
+			sleeper.interrupt();
+			sleeper.join();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package de.kdi.junit.runners.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+
+public class TestAsyncTestMetrics {
+
+	public static class Fixture {
+
+		@Test
+		public void spawnBusyThreads() throws InterruptedException {
+			final CountDownLatch allocating = new CountDownLatch(2);
+			for (int i = 0; i < 2; i++) {
+				new Thread() {
+					public void run() {
+						long end = System.nanoTime() + 200000000L; // several sample intervals
+						List<byte[]> garbage = new ArrayList<byte[]>();
+						while (System.nanoTime() < end) {
+							garbage.add(new byte[1024]);
+							if (garbage.size() > 100) {
+								garbage.clear();
+								allocating.countDown();
+							}
+						}
+					}
+				}.start();
+			}
+			allocating.await(); // the sample before the shutdown wait finds both threads alive and allocating
+		}
+	}
+
+	@Test
+	public void testMetricsAreAvailableToListeners() throws Exception {
+		final List<AsyncTestMetrics> metrics = new ArrayList<AsyncTestMetrics>();
+		RunNotifier notifier = new RunNotifier();
+		notifier.addListener(new RunListener() {
+			@Override
+			public void testFinished(Description description) {
+				metrics.add(AsyncTestMetrics.of(description));
+			}
+		});
+		File report = File.createTempFile("metrics", ".json");
+		report.deleteOnExit();
+		System.setProperty(AsyncTestMetrics.REPORT_PROPERTY, report.getPath());
+		try {
+			new AsyncTestRunner(Fixture.class).run(notifier);
+		} finally {
+			System.clearProperty(AsyncTestMetrics.REPORT_PROPERTY);
+		}
+		assertEquals(1, metrics.size());
+		AsyncTestMetrics result = metrics.get(0);
+		assertNotNull(result);
+		assertEquals("spawnBusyThreads", result.getDescription().getMethodName());
+		assertEquals(2, result.getCreatedThreads());
+		assertTrue(result.getPeakLiveThreads() >= 1);
+		assertTrue(result.getCpuTimeNanos() != 0);
+		assertTrue(result.getAllocatedBytes() != 0);
+		assertTrue(result.getShutdownWaitNanos() > 0);
+		assertTrue(result.getOverheadNanos() >= 0);
+		List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+		assertEquals(1, lines.size());
+		assertEquals(result.toJson(), lines.get(0));
+	}
+
+	@Test
+	public void testJsonEscaping() throws Exception {
+		Description description = Description.createTestDescription("a\"b", "c\\d\t");
+		AsyncTestMetrics metrics = new AsyncTestMetrics(description, 1, 2, 3, 4, 5, 6, 7, null);
+		assertEquals("{\"class\":\"a\\\"b\",\"method\":\"c\\\\d\\u0009\",\"createdThreads\":1,\"peakLiveThreads\":2,"
+				+ "\"cpuTimeNanos\":3,\"allocatedBytes\":4,\"invocationNanos\":5,\"shutdownWaitNanos\":6,\"overheadNanos\":7}",
+				metrics.toJson());
+	}
+
+	@Test
+	public void testOldestMetricsAreDropped() throws Exception {
+		Description first = Description.createTestDescription(TestAsyncTestMetrics.class, "first");
+		AsyncTestMetrics.publish(new AsyncTestMetrics(first, 0, 0, 0, 0, 0, 0, 0, null));
+		assertNotNull(AsyncTestMetrics.of(first));
+		for (int i = 0; i < AsyncTestMetrics.MAX_RETAINED; i++) {
+			Description currentDescription = Description.createTestDescription(TestAsyncTestMetrics.class, "later" + i);
+			AsyncTestMetrics.publish(new AsyncTestMetrics(currentDescription, 0, 0, 0, 0, 0, 0, 0, null));
+		}
+		assertNull(AsyncTestMetrics.of(first));
+	}
+
+}
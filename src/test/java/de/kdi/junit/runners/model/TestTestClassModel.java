@@ -0,0 +1,103 @@
+package de.kdi.junit.runners.model;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+
+public class TestTestClassModel {
+
+	public static class Fixture {
+
+		static final List<String> CALLS = new ArrayList<String>();
+
+		@BeforeClass
+		public static void beforeClass() {
+			CALLS.add("beforeClass");
+		}
+
+		@Before
+		public void before() {
+			CALLS.add("before");
+		}
+
+		@Test(expected = IllegalStateException.class)
+		public void b() {
+			throw new IllegalStateException();
+		}
+
+		@ThreadShutdownTimeout(42)
+		public void testA() {
+			CALLS.add("testA");
+		}
+
+		@Ignore
+		@Test
+		public void ignored() {}
+
+		public void helper() {}
+	}
+
+	@Test
+	public void testModelIsCachedPerClass() throws Exception {
+		assertSame(TestClassModel.of(Fixture.class), TestClassModel.of(Fixture.class));
+		assertNotSame(TestClassModel.of(Fixture.class), TestClassModel.of(TestTestClassModel.class));
+	}
+
+	@Test
+	public void testMethodsAreSortedAndResolved() throws Exception {
+		List<TestMethodModel> methods = TestClassModel.of(Fixture.class).getTestMethods();
+		assertEquals(2, methods.size());
+		TestMethodModel b = methods.get(0);
+		TestMethodModel testA = methods.get(1);
+		assertEquals("b", b.getName());
+		assertEquals("testA", testA.getName());
+		assertEquals(TestClassModel.DEFAULT_SHUTDOWN_TIMEOUT, b.getShutdownTimeout());
+		assertEquals(42, testA.getShutdownTimeout());
+		assertTrue(b.isExpected(new IllegalStateException()));
+		assertFalse(b.isExpected(new IllegalArgumentException()));
+		assertFalse(testA.isExpected(new IllegalStateException()));
+		assertEquals(Fixture.class, testA.getDescription().getTestClass());
+	}
+
+	@Test
+	public void testInvocationThroughHandles() throws Exception {
+		TestClassModel model = TestClassModel.of(Fixture.class);
+		Fixture.CALLS.clear();
+		Fixture fixture = new Fixture();
+		model.invokeBeforeClass();
+		model.invokeBefore(fixture);
+		model.getTestMethods().get(1).invoke(fixture);
+		model.invokeAfter(fixture); // no @After method
+		assertEquals("[beforeClass, before, testA]", Fixture.CALLS.toString());
+		try {
+			model.getTestMethods().get(0).invoke(fixture);
+			fail();
+		} catch (InvocationTargetException e) {
+			assertTrue(e.getTargetException() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testFilterSharesTheModel() throws Exception {
+		AsyncTestRunner runner = new AsyncTestRunner(Fixture.class);
+		TestMethodModel testA = TestClassModel.of(Fixture.class).getTestMethods().get(1);
+		runner.filter(Filter.matchMethodDescription(testA.getDescription()));
+		List<Description> children = runner.getDescription().getChildren();
+		assertEquals(1, children.size());
+		assertSame(testA.getDescription(), children.get(0));
+		assertEquals(2, new AsyncTestRunner(Fixture.class).getDescription().getChildren().size());
+	}
+
+}
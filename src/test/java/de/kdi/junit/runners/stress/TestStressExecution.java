@@ -0,0 +1,114 @@
+package de.kdi.junit.runners.stress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+import de.kdi.junit.runners.exception.AsynchronousTestRunnerException;
+import de.kdi.junit.runners.metrics.AsyncTestMetrics;
+import de.kdi.junit.runners.model.TestClassModel;
+import de.kdi.junit.runners.model.TestMethodModel;
+import de.kdi.junit.runners.thread.ExceptionRecorder;
+
+public class TestStressExecution {
+
+	private static Result runAlone(String methodName) throws Exception {
+		TestStressExecutionFixture.INVOCATIONS.set(0);
+		TestStressExecutionFixture.INSTANCES.set(0);
+		return new JUnitCore().run(Request.method(TestStressExecutionFixture.class, methodName));
+	}
+
+	private static StressResult getStressResult(String methodName) {
+		Description description = Description.createTestDescription(TestStressExecutionFixture.class, methodName);
+		AsyncTestMetrics metrics = AsyncTestMetrics.of(description);
+		assertNotNull(metrics);
+		return metrics.getStressResult();
+	}
+
+	@Test
+	public void testConcurrentInvocationsWithBarrier() throws Exception {
+		TestClassModel model = TestClassModel.of(TestStressExecutionFixture.class);
+		TestStressExecutionFixture.INVOCATIONS.set(0);
+		TestStressExecutionFixture.maxRunning = 0;
+		ExceptionRecorder recorder = new ExceptionRecorder();
+		StressResult result = new StressExecution(model, getTestMethod(model, "testOverlapping"), recorder).run(new TestStressExecutionFixture());
+		assertEquals(10001, TestStressExecutionFixture.INVOCATIONS.get());
+		assertEquals(10001, result.getInvocations());
+		assertEquals(4, result.getThreads());
+		assertEquals(0, result.getFailures());
+		assertEquals(0, recorder.getRecordedCount());
+		assertTrue(TestStressExecutionFixture.maxRunning > 1);
+		assertTrue(result.getThroughput() > 0);
+		assertTrue(result.getP50Nanos() <= result.getP99Nanos());
+		assertTrue(result.getP99Nanos() <= result.getMaxNanos());
+	}
+
+	private static TestMethodModel getTestMethod(TestClassModel model, String name) {
+		for (TestMethodModel currentMethod : model.getTestMethods()) {
+			if (currentMethod.getName().equals(name)) {
+				return currentMethod;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	@Test
+	public void testConcurrentWithoutRepeatInvokesOncePerThread() throws Exception {
+		TestStressExecutionFixture.allRunning = new CountDownLatch(3);
+		Result result = runAlone("testConcurrentWithoutRepeat");
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+		assertEquals(3, TestStressExecutionFixture.INVOCATIONS.get());
+		assertEquals(3, getStressResult("testConcurrentWithoutRepeat").getInvocations());
+	}
+
+	@Test
+	public void testFailuresAreCountedAndReported() throws Exception {
+		Result run = runAlone("testEveryThirdFails");
+		assertEquals(1, run.getFailureCount());
+		assertTrue(run.getFailures().get(0).getException() instanceof AsynchronousTestRunnerException);
+		StressResult result = getStressResult("testEveryThirdFails");
+		assertNotNull(result);
+		assertEquals(33, result.getFailures());
+		assertEquals(100, result.getInvocations());
+	}
+
+	@Test
+	public void testNewInstancePerInvocation() throws Exception {
+		Result result = runAlone("testNewInstances");
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+		assertEquals(5, TestStressExecutionFixture.INVOCATIONS.get());
+		assertEquals(6, TestStressExecutionFixture.INSTANCES.get()); // one for the test run itself
+		assertEquals(5, getStressResult("testNewInstances").getInvocations());
+	}
+
+	@Test
+	public void testHistogramPercentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000000, histogram.getMax());
+		assertWithinPrecision(500000, histogram.getValueAtPercentile(50));
+		assertWithinPrecision(990000, histogram.getValueAtPercentile(99));
+		assertEquals(1000000, histogram.getValueAtPercentile(100));
+		for (long value = 0; value < 100000; value += 7) {
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(value <= LatencyHistogram.highestValueOf(index));
+			assertTrue(index == 0 || value > LatencyHistogram.highestValueOf(index - 1));
+		}
+	}
+
+	private static void assertWithinPrecision(long expected, long actual) {
+		assertTrue(actual + " not within precision of " + expected, Math.abs(actual - expected) <= expected / 30);
+	}
+
+}
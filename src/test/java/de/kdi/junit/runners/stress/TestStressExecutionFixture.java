@@ -0,0 +1,59 @@
+package de.kdi.junit.runners.stress;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+import de.kdi.junit.runners.annotation.Concurrent;
+import de.kdi.junit.runners.annotation.Repeat;
+
+@RunWith(AsyncTestRunner.class)
+public class TestStressExecutionFixture {
+
+	static final AtomicInteger INVOCATIONS = new AtomicInteger();
+	static final AtomicInteger INSTANCES = new AtomicInteger();
+	static final AtomicInteger RUNNING = new AtomicInteger();
+	static volatile int maxRunning;
+	static volatile CountDownLatch allRunning = new CountDownLatch(3);
+
+	public TestStressExecutionFixture() {
+		INSTANCES.incrementAndGet();
+	}
+
+	@Repeat(10001)
+	@Concurrent(value = 4, startBarrier = true)
+	public void testOverlapping() throws Exception {
+		INVOCATIONS.incrementAndGet();
+		int running = RUNNING.incrementAndGet();
+		if (running > maxRunning) {
+			maxRunning = running;
+		}
+		Thread.yield();
+		RUNNING.decrementAndGet();
+	}
+
+	@Repeat(100)
+	@Concurrent(2)
+	public void testEveryThirdFails() {
+		if (INVOCATIONS.incrementAndGet() % 3 == 0) {
+			throw new IllegalStateException("race found");
+		}
+	}
+
+	@Concurrent(value = 3, startBarrier = true)
+	public void testConcurrentWithoutRepeat() throws Exception {
+		INVOCATIONS.incrementAndGet();
+		allRunning.countDown();
+		if (!allRunning.await(5, TimeUnit.SECONDS)) {
+			throw new IllegalStateException("invocations did not overlap");
+		}
+	}
+
+	@Repeat(value = 5, newInstance = true)
+	public void testNewInstances() {
+		INVOCATIONS.incrementAndGet();
+	}
+}
@@ -0,0 +1,99 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.kdi.junit.runners.agent.ThreadCreationHooks;
+
+/**
+ * Simulates the calls of an instrumented {@link Thread} class.
+ */
+public class TestAgentThreadMonitor {
+
+	private AgentThreadMonitor testable = new AgentThreadMonitor();
+
+	@After
+	public void teardown() {
+		testable.stopMonitoring();
+		ThreadCreationHooks.setListener(null);
+	}
+
+	@Test
+	public void testThreadsOfMonitoredThreadAreAttributed() throws Exception {
+		testable.startMonitoring();
+		final Thread grandChild = new Thread();
+		Thread child = new Thread() {
+			@Override
+			public void run() {
+				ThreadCreationHooks.threadCreated(grandChild);
+			}
+		};
+		ThreadCreationHooks.threadCreated(child);
+		child.start();
+		child.join();
+		assertEquals(2, testable.getCreatedThreads().size());
+		assertTrue(testable.getCreatedThreads().contains(grandChild));
+		assertNotNull(testable.getCreationSite(child));
+	}
+
+	@Test
+	public void testForeignThreadsAreIgnored() throws Exception {
+		testable.startMonitoring();
+		Thread foreign = new Thread() {
+			@Override
+			public void run() {
+				ThreadCreationHooks.threadStarted(new Thread());
+			}
+		};
+		foreign.start();
+		foreign.join();
+		assertTrue(testable.getCreatedThreads().isEmpty());
+	}
+
+	@Test
+	public void testExceptionsOfAttributedThreads() throws Exception {
+		testable.startMonitoring();
+		Thread child = new Thread() {
+			@Override
+			public void run() {
+				throw new IllegalStateException("recorded");
+			}
+		};
+		ThreadCreationHooks.threadStarted(child);
+		child.start();
+		child.join();
+		Map<Long, Throwable> threadIdToThrowable = testable.getThreadIdAndCorrespondingException();
+		assertEquals(1, threadIdToThrowable.size());
+		assertFalse(testable.getCreatedThreads().isEmpty());
+	}
+
+	@Test
+	public void testDefaultHandlerIsRestored() throws Exception {
+		UncaughtExceptionHandler formerHandler = Thread.getDefaultUncaughtExceptionHandler();
+		for (int i = 0; i < 3; i++) {
+			AgentThreadMonitor monitor = new AgentThreadMonitor();
+			monitor.startMonitoring();
+			Thread child = new Thread() {
+				@Override
+				public void run() {
+					throw new IllegalStateException("recorded");
+				}
+			};
+			ThreadCreationHooks.threadStarted(child);
+			child.start();
+			child.join();
+			monitor.stopMonitoring();
+			assertEquals(1, monitor.getThreadIdAndCorrespondingException().size());
+		}
+		assertSame(formerHandler, Thread.getDefaultUncaughtExceptionHandler());
+	}
+}
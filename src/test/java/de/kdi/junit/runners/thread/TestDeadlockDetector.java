@@ -0,0 +1,133 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+import de.kdi.junit.runners.exception.ThreadsDeadlockedException;
+
+public class TestDeadlockDetector {
+
+	/**
+	 * Starts two threads locking the two locks in opposite order.
+	 */
+	static List<Thread> startDeadlock(final ReentrantLock first, final ReentrantLock second, boolean daemon) throws InterruptedException {
+		final CountDownLatch bothLocked = new CountDownLatch(2);
+		Thread thread1 = new LockingThread("deadlock-1", first, second, bothLocked);
+		Thread thread2 = new LockingThread("deadlock-2", second, first, bothLocked);
+		thread1.setDaemon(daemon);
+		thread2.setDaemon(daemon);
+		thread1.start();
+		thread2.start();
+		bothLocked.await();
+		return Arrays.asList(thread1, thread2);
+	}
+
+	private static class LockingThread extends Thread {
+
+		private final ReentrantLock outer;
+		private final ReentrantLock inner;
+		private final CountDownLatch bothLocked;
+
+		LockingThread(String name, ReentrantLock outer, ReentrantLock inner, CountDownLatch bothLocked) {
+			super(name);
+			this.outer = outer;
+			this.inner = inner;
+			this.bothLocked = bothLocked;
+		}
+
+		@Override
+		public void run() {
+			try {
+				outer.lockInterruptibly();
+				try {
+					bothLocked.countDown();
+					bothLocked.await();
+					inner.lockInterruptibly();
+					inner.unlock();
+				} finally {
+					outer.unlock();
+				}
+			} catch (InterruptedException e) {
+				// released by the test
+			}
+		}
+	}
+
+	private static void interruptAll(List<Thread> threads) throws InterruptedException {
+		for (Thread currentThread : threads) {
+			currentThread.interrupt();
+		}
+		for (Thread currentThread : threads) {
+			currentThread.join();
+		}
+	}
+
+	@Test
+	public void testFindsDeadlockOfTrackedThreads() throws Exception {
+		List<Thread> threads = startDeadlock(new ReentrantLock(), new ReentrantLock(), true);
+		try {
+			DeadlockDetector.Deadlock deadlock = waitForDeadlock(threads);
+			assertEquals(new HashSet<Thread>(threads), new HashSet<Thread>(deadlock.getThreads()));
+			String description = deadlock.getDescription();
+			assertTrue(description, description.contains("\"deadlock-1\""));
+			assertTrue(description, description.contains("owned by \"deadlock-2\""));
+			assertTrue(description, description.contains("locked synchronizer"));
+			assertNull(new DeadlockDetector().findDeadlock(Collections.singletonList(Thread.currentThread())));
+		} finally {
+			interruptAll(threads);
+		}
+	}
+
+	private static DeadlockDetector.Deadlock waitForDeadlock(List<Thread> threads) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			DeadlockDetector.Deadlock result = new DeadlockDetector().findDeadlock(threads);
+			if (result != null) {
+				return result;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("no deadlock found");
+	}
+
+	@Test
+	public void testShutdownWaiterStopsAtDeadlock() throws Exception {
+		List<Thread> threads = startDeadlock(new ReentrantLock(), new ReentrantLock(), false);
+		try {
+			long start = System.nanoTime();
+			ThreadShutdownWaiter waiter = new ThreadShutdownWaiter(30000);
+			assertEquals(threads, waiter.awaitTermination(threads));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+			assertNotNull(waiter.getDeadlock());
+		} finally {
+			interruptAll(threads);
+		}
+	}
+
+	@Test
+	public void testRunnerReportsDeadlock() throws Exception {
+		long start = System.nanoTime();
+		Result result = new JUnitCore().run(TestDeadlockDetectorFixture.class);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+		assertEquals(1, result.getFailureCount());
+		Throwable exception = result.getFailures().get(0).getException();
+		assertTrue(String.valueOf(exception), exception instanceof ThreadsDeadlockedException);
+		List<Thread> threads = ((ThreadsDeadlockedException) exception).getDeadlockedThreads();
+		assertEquals(2, threads.size());
+		interruptAll(threads);
+	}
+
+}
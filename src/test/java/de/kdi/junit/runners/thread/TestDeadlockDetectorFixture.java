@@ -0,0 +1,17 @@
+package de.kdi.junit.runners.thread;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+import de.kdi.junit.runners.annotation.ThreadShutdownTimeout;
+
+@RunWith(AsyncTestRunner.class)
+public class TestDeadlockDetectorFixture {
+
+	@ThreadShutdownTimeout(30000)
+	public void testDeadlock() throws Exception {
+		TestDeadlockDetector.startDeadlock(new ReentrantLock(), new ReentrantLock(), false);
+	}
+}
@@ -0,0 +1,125 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class TestExceptionRecorder {
+
+	@Test
+	public void testMultipleExceptionsPerThread() throws Exception {
+		ExceptionRecorder testable = new ExceptionRecorder(10);
+		IllegalStateException first = new IllegalStateException("first");
+		testable.record(Thread.currentThread(), first);
+		testable.record(Thread.currentThread(), new IllegalStateException("second"));
+		List<RecordedException> recordedExceptions = testable.getRecordedExceptions();
+		assertEquals(2, recordedExceptions.size());
+		assertEquals(first, recordedExceptions.get(0).getThrowable());
+		assertEquals(first, testable.getFirstThrowable());
+		assertEquals(1, testable.getThreadIdToException().size());
+	}
+
+	@Test
+	public void testExceptionsBeyondCapacityAreCounted() throws Exception {
+		ExceptionRecorder testable = new ExceptionRecorder(1);
+		testable.record(Thread.currentThread(), new IllegalStateException());
+		assertNull(testable.record(Thread.currentThread(), new IllegalStateException()));
+		assertEquals(2, testable.getRecordedCount());
+		assertEquals(1, testable.getDroppedCount());
+		assertEquals(1, testable.getRecordedExceptions().size());
+	}
+
+	@Test
+	public void testConcurrentRecording() throws Exception {
+		final int threadCount = 16;
+		final int exceptionsPerThread = 1000;
+		final ExceptionRecorder testable = new ExceptionRecorder(5000);
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < exceptionsPerThread; j++) {
+						testable.record(this, new IllegalStateException());
+					}
+				}
+			};
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread currentThread : threads) {
+			currentThread.join();
+		}
+		List<RecordedException> recordedExceptions = testable.getRecordedExceptions();
+		assertEquals(threadCount * exceptionsPerThread, testable.getRecordedCount());
+		assertEquals(5000, recordedExceptions.size());
+		assertEquals(threadCount * exceptionsPerThread - 5000, testable.getDroppedCount());
+		for (int i = 0; i < recordedExceptions.size(); i++) {
+			assertTrue(recordedExceptions.get(i).getSequenceNumber() == i);
+		}
+	}
+
+	@Test
+	public void testCountedExceptionsAreVisible() throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			final ExceptionRecorder testable = new ExceptionRecorder(10);
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					testable.record(this, new IllegalStateException());
+				}
+			};
+			thread.start();
+			while (testable.getRecordedCount() == 0) {
+				Thread.yield();
+			}
+			assertTrue(testable.getFirstThrowable() instanceof IllegalStateException);
+			thread.join();
+		}
+	}
+
+	@Test
+	public void testFirstExceptionWakesWaitingThread() throws Exception {
+		final ExceptionRecorder testable = new ExceptionRecorder(10);
+		testable.wakeOnRecord(Thread.currentThread());
+		new Thread() {
+			@Override
+			public void run() {
+				testable.record(this, new IllegalStateException());
+			}
+		}.start();
+		try {
+			Thread.sleep(10000);
+		} catch (InterruptedException e) {
+			// woken by the recorder
+		}
+		assertTrue(testable.stopWaking());
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	public void testAlreadyRecordedExceptionWakesAtOnce() throws Exception {
+		ExceptionRecorder testable = new ExceptionRecorder(10);
+		testable.record(Thread.currentThread(), new IllegalStateException());
+		testable.wakeOnRecord(Thread.currentThread());
+		assertTrue(Thread.currentThread().isInterrupted());
+		assertTrue(testable.stopWaking());
+		assertFalse(Thread.currentThread().isInterrupted());
+		testable.wakeOnRecord(Thread.currentThread());
+		testable.stopWaking();
+		testable.record(Thread.currentThread(), new IllegalStateException());
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+}
@@ -0,0 +1,110 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class TestMonitoringThreadGroup {
+
+	@Test
+	public void testThreadsOfTheGroupAreMonitored() throws Exception {
+		final MonitoringThreadGroup testable = new MonitoringThreadGroup("testThreadsOfTheGroupAreMonitored");
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicReference<Thread> child = new AtomicReference<Thread>();
+		runInGroup(testable, new Runnable() {
+			@Override
+			public void run() {
+				testable.startMonitoring();
+				child.set(new Thread() {
+					@Override
+					public void run() {
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						throw new IllegalStateException("group");
+					}
+				});
+				child.get().start();
+			}
+		});
+		assertEquals(Collections.singleton(child.get()), testable.getCreatedThreads());
+		assertFalse(testable.destroyIfTerminated());
+		release.countDown();
+		child.get().join();
+		assertEquals(1, testable.getExceptionRecorder().getRecordedCount());
+		assertTrue(testable.destroyIfTerminated());
+		assertTrue(testable.isDestroyed());
+	}
+
+	@Test
+	public void testExceptionsOfThreadsInForeignGroupsAreRouted() throws Exception {
+		final MonitoringThreadGroup testable = new MonitoringThreadGroup("testExceptionsOfThreadsInForeignGroupsAreRouted");
+		final ThreadGroup foreignGroup = new ThreadGroup("foreign");
+		final AtomicReference<Thread> child = new AtomicReference<Thread>();
+		runInGroup(testable, new Runnable() {
+			@Override
+			public void run() {
+				testable.startMonitoring();
+				child.set(startThread(foreignGroup, new IllegalStateException("foreign group")));
+			}
+		});
+		child.get().join();
+		assertEquals(1, testable.getExceptionRecorder().getRecordedCount());
+		assertTrue(testable.getCreatedThreads().isEmpty());
+		assertTrue(testable.destroyIfTerminated());
+	}
+
+	@Test
+	public void testDefaultHandlerIsRestoredWhenTheLastMonitorIsClosed() throws Exception {
+		UncaughtExceptionDispatcher.prune();
+		UncaughtExceptionHandler formerHandler = Thread.getDefaultUncaughtExceptionHandler();
+		assumeFalse(formerHandler instanceof UncaughtExceptionDispatcher); // threads left behind by other tests are still alive
+		final MonitoringThreadGroup testable = new MonitoringThreadGroup("testDefaultHandlerIsRestoredWhenTheLastMonitorIsClosed");
+		final ThreadGroup foreignGroup = new ThreadGroup("foreign");
+		final AtomicReference<Thread> child = new AtomicReference<Thread>();
+		CaptureWindow window = ThreadMonitoringService.getInstance().newCaptureWindow();
+		window.startMonitoring();
+		runInGroup(testable, new Runnable() {
+			@Override
+			public void run() {
+				testable.startMonitoring();
+				child.set(startThread(foreignGroup, new IllegalStateException("foreign group")));
+			}
+		});
+		child.get().join();
+		window.stopMonitoring();
+		assertEquals(1, testable.getExceptionRecorder().getRecordedCount());
+		assertEquals(0, window.getExceptionRecorder().getRecordedCount());
+		assertTrue(Thread.getDefaultUncaughtExceptionHandler() instanceof UncaughtExceptionDispatcher);
+		assertTrue(testable.destroyIfTerminated());
+		assertSame(formerHandler, Thread.getDefaultUncaughtExceptionHandler());
+	}
+
+	private static void runInGroup(ThreadGroup group, Runnable runnable) throws InterruptedException {
+		Thread testThread = new Thread(group, runnable);
+		testThread.start();
+		testThread.join();
+	}
+
+	private static Thread startThread(ThreadGroup group, final RuntimeException exception) {
+		Thread result = new Thread(group, new Runnable() {
+			@Override
+			public void run() {
+				throw exception;
+			}
+		});
+		result.start();
+		return result;
+	}
+}
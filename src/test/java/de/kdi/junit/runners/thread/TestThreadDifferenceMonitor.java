@@ -1,8 +1,10 @@
 package de.kdi.junit.runners.thread;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,6 +16,7 @@ import org.junit.rules.TestRule;
 import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
 import com.carrotsearch.junitbenchmarks.BenchmarkRule;
 
+@SuppressWarnings("deprecation")
 public class TestThreadDifferenceMonitor {
 
 	@Rule
@@ -65,6 +68,26 @@ public class TestThreadDifferenceMonitor {
 		assertTrue(threadIdToThrowable.size() == 1);
 	}
 
+	@BenchmarkOptions(benchmarkRounds = 100, warmupRounds = 0)
+	@Test
+	public void testStartAndStopHandshake() throws Exception {
+		ThreadDifferenceMonitor monitor = new ThreadDifferenceMonitor();
+		monitor.startMonitoring();
+		Thread threadToStart = new Thread() {
+			public void run() {
+				try {
+					Thread.sleep(1000);
+				} catch (InterruptedException e) {
+					// finished by the test
+				}
+			}
+		};
+		threadToStart.start();
+		monitor.stopMonitoring();
+		threadToStart.interrupt();
+		assertEquals(Collections.singleton(threadToStart), monitor.getCreatedThreads());
+	}
+
 	private Map<Long, Throwable> testDifferenceMonitor(Thread threadToStart) throws InterruptedException {
 		ThreadDifferenceMonitor monitor = new ThreadDifferenceMonitor();
 		Thread monitoringThread = new Thread(monitor);
@@ -73,6 +96,7 @@ public class TestThreadDifferenceMonitor {
 		threadToStart.start();
 		monitoringThread.interrupt();
 		monitoringThread.join();
+		threadToStart.join(); // its exception is recorded before it terminates
 		Set<Thread> createdThreads = monitor.getCreatedThreads();
 		assertTrue(createdThreads.size() == 1 || createdThreads.size() == 2);
 		return monitor.getThreadIdAndCorrespondingException();
@@ -3,6 +3,8 @@ package de.kdi.junit.runners.thread;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Rule;
@@ -28,8 +30,21 @@ public class TestThreadMonitor {
 		assertEquals(sizeBefore + 1, testable.currentThreadsId.size());
 	}
 
-	private static void createStubThread() {
-		new Thread() {
+	@Test
+	public void testSnapshotComparation() throws Exception {
+		ThreadSnapshot snapshot = new ThreadSnapshot();
+		snapshot.capture();
+		ThreadMonitor testable = new ThreadMonitor(snapshot);
+		Thread stubThread = createStubThread();
+		snapshot.capture();
+		List<Thread> difference = new ArrayList<Thread>();
+		assertEquals(1, testable.getDifference(snapshot, difference));
+		assertEquals(stubThread, difference.get(0));
+		assertEquals(0, testable.getDifference(snapshot, difference));
+	}
+
+	private static Thread createStubThread() {
+		Thread result = new Thread() {
 			public void run() {
 				try {
 					Thread.sleep(1000);
@@ -37,7 +52,9 @@ public class TestThreadMonitor {
 					e.printStackTrace();
 				}
 			};
-		}.start();
+		};
+		result.start();
+		return result;
 	}
 
 	@Test
@@ -0,0 +1,138 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+
+public class TestThreadMonitoringService {
+
+	@Rule
+	public TestRule benchmarkRun = new BenchmarkRule();
+
+	private final ThreadMonitoringService service = ThreadMonitoringService.getInstance();
+
+	@BenchmarkOptions(benchmarkRounds = 100, warmupRounds = 0)
+	@Test
+	public void testWindowRecordsOnlyThreadsCreatedWhileOpen() throws Exception {
+		CountDownLatch finish = new CountDownLatch(1);
+		Thread before = startWaitingThread(finish);
+		CaptureWindow window = service.newCaptureWindow();
+		window.startMonitoring();
+		Thread inside = startWaitingThread(finish);
+		window.stopMonitoring();
+		Thread after = startWaitingThread(finish);
+		try {
+			Set<Thread> createdThreads = window.getCreatedThreads();
+			assertTrue(createdThreads.contains(inside));
+			assertFalse(createdThreads.contains(before));
+			assertFalse(createdThreads.contains(after));
+		} finally {
+			finish.countDown();
+			before.join();
+			inside.join();
+			after.join();
+		}
+	}
+
+	@BenchmarkOptions(benchmarkRounds = 1, warmupRounds = 0)
+	@Test
+	public void testOverlappingWindowsShareOneMonitoringThread() throws Exception {
+		CountDownLatch finish = new CountDownLatch(1);
+		CaptureWindow outer = service.newCaptureWindow();
+		outer.startMonitoring();
+		CaptureWindow inner = service.newCaptureWindow();
+		inner.startMonitoring();
+		Thread thread = startWaitingThread(finish);
+		inner.stopMonitoring();
+		outer.stopMonitoring();
+		finish.countDown();
+		thread.join();
+		assertTrue(inner.getCreatedThreads().contains(thread));
+		assertTrue(outer.getCreatedThreads().contains(thread));
+		assertEquals(1, countThreadsNamed("ThreadMonitoringService"));
+	}
+
+	@BenchmarkOptions(benchmarkRounds = 1, warmupRounds = 0)
+	@Test
+	public void testExceptionsAreRecordedPerWindow() throws Exception {
+		CaptureWindow window = service.newCaptureWindow();
+		window.startMonitoring();
+		Thread thread = new Thread() {
+			public void run() {
+				throw new IllegalArgumentException("recorded by the window");
+			}
+		};
+		thread.start();
+		thread.join();
+		window.stopMonitoring();
+		assertEquals(1, window.getExceptionRecorder().getRecordedCount());
+	}
+
+	@BenchmarkOptions(benchmarkRounds = 1, warmupRounds = 0)
+	@Test
+	public void testDefaultHandlerIsRestored() throws Exception {
+		UncaughtExceptionDispatcher.prune();
+		UncaughtExceptionHandler formerHandler = Thread.getDefaultUncaughtExceptionHandler();
+		assumeFalse(formerHandler instanceof UncaughtExceptionDispatcher); // threads left behind by other tests are still alive
+		final CountDownLatch release = new CountDownLatch(1);
+		CaptureWindow window = service.newCaptureWindow();
+		window.startMonitoring();
+		Thread thread = new Thread() {
+			public void run() {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				throw new IllegalArgumentException("thrown after the window is closed");
+			}
+		};
+		thread.start();
+		window.stopMonitoring();
+		assertSame(UncaughtExceptionDispatcher.class, Thread.getDefaultUncaughtExceptionHandler().getClass());
+		release.countDown();
+		thread.join();
+		window.stopMonitoring();
+		assertEquals(1, window.getExceptionRecorder().getRecordedCount());
+		assertFalse(window.isReceiving());
+		assertSame(formerHandler, Thread.getDefaultUncaughtExceptionHandler());
+	}
+
+	private static Thread startWaitingThread(final CountDownLatch finish) {
+		Thread result = new Thread() {
+			public void run() {
+				try {
+					finish.await();
+				} catch (InterruptedException e) {
+					// finished by the test
+				}
+			}
+		};
+		result.start();
+		return result;
+	}
+
+	private static int countThreadsNamed(String name) {
+		int result = 0;
+		for (Thread currentThread : Thread.getAllStackTraces().keySet()) {
+			if (name.equals(currentThread.getName())) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+}
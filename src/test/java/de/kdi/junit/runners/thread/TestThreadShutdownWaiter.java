@@ -0,0 +1,67 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestThreadShutdownWaiter {
+
+	@Test
+	public void testReturnsWhenLastThreadHasFinished() throws Exception {
+		List<Thread> threads = Arrays.asList(startSleepingThread(100), startSleepingThread(200));
+		long start = System.currentTimeMillis();
+		List<Thread> stillAlive = new ThreadShutdownWaiter(5000).awaitTermination(threads);
+		assertTrue(stillAlive.isEmpty());
+		assertTrue(System.currentTimeMillis() - start < 2000);
+	}
+
+	@Test
+	public void testAllThreadsShareOneDeadline() throws Exception {
+		List<Thread> threads = Arrays.asList(startSleepingThread(10000), startSleepingThread(10000), startSleepingThread(10000));
+		long start = System.currentTimeMillis();
+		List<Thread> stillAlive = new ThreadShutdownWaiter(300).awaitTermination(threads);
+		long duration = System.currentTimeMillis() - start;
+		assertEquals(threads, stillAlive);
+		assertTrue("waited " + duration + " ms", duration < 800);
+		for (Thread currentThread : threads) {
+			currentThread.interrupt();
+		}
+	}
+
+	@Test
+	public void testDaemonThreadsAreIgnored() throws Exception {
+		Thread daemon = new Thread() {
+			@Override
+			public void run() {
+				sleepQuietly(10000);
+			}
+		};
+		daemon.setDaemon(true);
+		daemon.start();
+		assertTrue(new ThreadShutdownWaiter(5000).awaitTermination(Arrays.asList(daemon)).isEmpty());
+		daemon.interrupt();
+	}
+
+	private static Thread startSleepingThread(final long millis) {
+		Thread result = new Thread() {
+			@Override
+			public void run() {
+				sleepQuietly(millis);
+			}
+		};
+		result.start();
+		return result;
+	}
+
+	private static void sleepQuietly(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			// finished by the test
+		}
+	}
+}
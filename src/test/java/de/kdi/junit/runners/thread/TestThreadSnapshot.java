@@ -0,0 +1,45 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestThreadSnapshot {
+
+	@Test
+	public void testCaptureContainsCurrentThread() throws Exception {
+		ThreadSnapshot testable = new ThreadSnapshot();
+		int size = testable.capture();
+		assertEquals(size, testable.size());
+		assertTrue(indexOf(testable, Thread.currentThread()) >= 0);
+	}
+
+	@Test
+	public void testCaptureGrowsBuffers() throws Exception {
+		ThreadSnapshot testable = new ThreadSnapshot(1);
+		int size = testable.capture();
+		assertTrue(size > 1);
+		int index = indexOf(testable, Thread.currentThread());
+		assertEquals(Thread.currentThread().getId(), testable.getThreadIds()[index]);
+	}
+
+	@Test
+	public void testRelease() throws Exception {
+		ThreadSnapshot testable = new ThreadSnapshot();
+		testable.capture();
+		testable.release();
+		assertEquals(0, testable.size());
+		assertNull(testable.getThread(0));
+	}
+
+	private static int indexOf(ThreadSnapshot snapshot, Thread thread) {
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (snapshot.getThread(i) == thread) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
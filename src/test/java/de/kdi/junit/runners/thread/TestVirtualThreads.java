@@ -0,0 +1,36 @@
+package de.kdi.junit.runners.thread;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class TestVirtualThreads {
+
+	@Test
+	public void testPlatformThreadIsNotVirtual() throws Exception {
+		assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+	}
+
+	@Test
+	public void testVirtualThreadIsWaitedFor() throws Exception {
+		assumeTrue(VirtualThreads.isSupported());
+		Runnable sleeping = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(200);
+				} catch (InterruptedException e) {
+					// finished
+				}
+			}
+		};
+		Thread virtualThread = (Thread) Thread.class.getMethod("startVirtualThread", Runnable.class).invoke(null, sleeping);
+		assertTrue(VirtualThreads.isVirtual(virtualThread));
+		assertTrue(new ThreadShutdownWaiter(5000).awaitTermination(Collections.singletonList(virtualThread)).isEmpty());
+		assertFalse(virtualThread.isAlive());
+	}
+}
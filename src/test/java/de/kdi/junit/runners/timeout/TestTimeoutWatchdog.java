@@ -0,0 +1,77 @@
+package de.kdi.junit.runners.timeout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+import de.kdi.junit.runners.exception.AsynchronousTestRunnerException;
+import de.kdi.junit.runners.exception.TestTimedOutException;
+import de.kdi.junit.runners.timeout.TimeoutWatchdog.Timeout;
+
+public class TestTimeoutWatchdog {
+
+	private static Result runAlone(String methodName) throws Exception {
+		return new JUnitCore().run(Request.method(TestTimeoutWatchdogFixture.class, methodName));
+	}
+
+	@Test
+	public void testCancelledInTime() throws Exception {
+		TimeoutWatchdog watchdog = TimeoutWatchdog.getInstance();
+		for (int i = 0; i < 10000; i++) {
+			Timeout timeout = watchdog.schedule(Thread.currentThread(), 1000);
+			assertTrue(timeout.cancel());
+			assertFalse(timeout.isExpired());
+		}
+		assertEquals(0, watchdog.getPendingCount());
+	}
+
+	@Test
+	public void testExpiryInterruptsAndCapturesTheStack() throws Exception {
+		long start = System.nanoTime();
+		Timeout timeout = TimeoutWatchdog.getInstance().schedule(Thread.currentThread(), 50);
+		try {
+			Thread.sleep(10000);
+		} catch (InterruptedException e) {
+			// expected
+		}
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+		assertFalse(timeout.cancel());
+		assertTrue(timeout.isExpired());
+		assertFalse(Thread.currentThread().isInterrupted());
+		TestTimedOutException exception = timeout.newException();
+		assertEquals(50, exception.getTimeoutMillis());
+		assertEquals("sleep", exception.getStackTrace()[0].getMethodName());
+	}
+
+	@Test
+	public void testRunnerFailsHangingTestMethod() throws Exception {
+		long start = System.nanoTime();
+		Result result = runAlone("testHanging");
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+		assertEquals(1, result.getFailureCount());
+		assertTrue(result.getFailures().get(0).getException() instanceof TestTimedOutException);
+	}
+
+	@Test
+	public void testRunnerPassesTestMethodInTime() throws Exception {
+		Result result = runAlone("testInTime");
+		assertEquals(result.getFailures().toString(), 0, result.getFailureCount());
+	}
+
+	@Test
+	public void testEveryStressedInvocationIsTimed() throws Exception {
+		Result result = runAlone("testEveryInvocationHangs");
+		assertEquals(1, result.getFailureCount());
+		AsynchronousTestRunnerException exception = (AsynchronousTestRunnerException) result.getFailures().get(0).getException();
+		assertEquals(3, exception.getRecordedExceptions().size());
+		assertTrue(exception.getRecordedExceptions().get(0).getThrowable() instanceof TestTimedOutException);
+	}
+
+}
@@ -0,0 +1,26 @@
+package de.kdi.junit.runners.timeout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.kdi.junit.runners.AsyncTestRunner;
+import de.kdi.junit.runners.annotation.Repeat;
+
+@RunWith(AsyncTestRunner.class)
+public class TestTimeoutWatchdogFixture {
+
+	@Test(timeout = 100)
+	public void testHanging() throws Exception {
+		Thread.sleep(10000);
+	}
+
+	@Test(timeout = 5000)
+	public void testInTime() {
+	}
+
+	@Repeat(3)
+	@Test(timeout = 50)
+	public void testEveryInvocationHangs() throws Exception {
+		Thread.sleep(10000);
+	}
+}